@@ -0,0 +1,196 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.neverPlayer;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.Node;
+import uk.ac.bris.cs.scotlandyard.ai.MrXDistribution.Prior;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+import uk.ac.bris.cs.scotlandyard.model.Turn;
+
+/**
+ * Compares updating a {@link MrXDistribution} with one MrX ticket against
+ * recomputing the distribution from every move of the game so far, as a
+ * detective without a spectator would. Games are random six player games on
+ * the standard map, stopped in the given round right after MrX has moved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MrXDistributionBenchmark {
+
+	/**
+	 * The round the game is stopped in, every one of them hidden
+	 */
+	@Param({ "7", "12", "23" })
+	public int round;
+
+	private ScotlandYardModel game;
+	private Map<Colour, Integer> start;
+	// every ticket move of the game and whether it was made in a reveal round
+	private final List<TicketMove> log = new ArrayList<>();
+	private final List<Boolean> revealed = new ArrayList<>();
+	private TicketMove last;
+	private MrXDistribution distribution;
+
+	@Setup
+	public void setUp() throws IOException {
+		for (int seed = 0; !play(seed); seed++) {
+			log.clear();
+			revealed.clear();
+		}
+		double[] expected = distribution.toArray();
+		double[] actual = naive(game, start, log, revealed);
+		for (int node = 0; node < expected.length; node++)
+			if (Math.abs(expected[node] - actual[node]) > 1e-9)
+				throw new IllegalStateException("Node " + node + ": " + expected[node]
+						+ " incrementally, " + actual[node] + " recomputed");
+	}
+
+	// plays a random game until MrX has moved in the round, false if it
+	// ended before
+	private boolean play(int seed) throws IOException {
+		Random random = new Random(seed);
+		List<Integer> locations = StandardGame.generateDetectiveLocations(seed, 5);
+		List<PlayerConfiguration> detectives = new ArrayList<>();
+		start = new HashMap<>();
+		for (int i = 0; i < locations.size(); i++) {
+			Colour colour = Colour.values()[i + 1];
+			detectives.add(new PlayerConfiguration.Builder(colour).using(neverPlayer())
+					.with(StandardGame.generateDetectiveTickets()).at(locations.get(i))
+					.build());
+			start.put(colour, locations.get(i));
+		}
+		game = new ScotlandYardModel(StandardGame.ROUNDS, StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).using(neverPlayer())
+						.with(StandardGame.generateMrXTickets())
+						.at(StandardGame.generateMrXLocation(seed)).build(),
+				detectives.get(0), detectives.subList(1, detectives.size())
+						.toArray(new PlayerConfiguration[0]));
+		distribution = new MrXDistribution(game, Prior.WALK);
+		game.registerSpectator(distribution);
+		game.registerSpectator(new Spectator() {
+			@Override
+			public void onMoveMade(ScotlandYardView view, Move move) {
+				if (!(move instanceof TicketMove)) return;
+				log.add((TicketMove) move);
+				revealed.add(move.colour().isMrX()
+						&& view.getRounds().get(view.getCurrentRound() - 1));
+				if (move.colour().isMrX()) last = (TicketMove) move;
+			}
+		});
+		while (!game.isGameOver()) {
+			Turn turn = game.nextTurn().get();
+			if (turn.colour().isMrX() && game.getCurrentRound() >= round - 1) {
+				// a single ticket so the round ends hidden
+				Move move = turn.moves().stream()
+						.filter(TicketMove.class::isInstance)
+						.findFirst().orElse(null);
+				if (move == null) return false;
+				game.play(move);
+				return !game.isGameOver() && game.getCurrentRound() == round;
+			}
+			game.play(new ArrayList<>(turn.moves()).get(random.nextInt(turn.moves().size())));
+		}
+		return false;
+	}
+
+	@Benchmark
+	public MrXDistribution incremental() {
+		distribution.onMoveMade(game, last);
+		return distribution;
+	}
+
+	@Benchmark
+	public double[] recompute() {
+		return naive(game, start, log, revealed);
+	}
+
+	/**
+	 * Recomputes the distribution of {@link Prior#WALK} from the whole log
+	 * with the graph and boxed maps
+	 */
+	static double[] naive(ScotlandYardView view, Map<Colour, Integer> start,
+			List<TicketMove> log, List<Boolean> revealed) {
+		Graph<Integer, Transport> graph = view.getGraph();
+		Map<Colour, Integer> detectives = new HashMap<>(start);
+		Map<Integer, Double> mass = new HashMap<>();
+		for (Node<Integer> node : graph.getNodes())
+			mass.put(node.value(), 1d);
+		mass = normalise(mass, detectives);
+		for (int i = 0; i < log.size(); i++) {
+			TicketMove move = log.get(i);
+			Map<Integer, Double> next = new HashMap<>();
+			if (move.colour().isDetective()) {
+				detectives.put(move.colour(), move.destination());
+				next.putAll(mass);
+			} else if (revealed.get(i)) {
+				next.put(move.destination(), 1d);
+			} else {
+				for (Map.Entry<Integer, Double> entry : mass.entrySet()) {
+					List<Integer> targets = new ArrayList<>();
+					for (Edge<Integer, Transport> edge : graph
+							.getEdgesFrom(graph.getNode(entry.getKey()))) {
+						Ticket ticket = Ticket.fromTransport(edge.data());
+						if (move.ticket() == SECRET || move.ticket() == ticket)
+							targets.add(edge.destination().value());
+					}
+					for (int target : targets)
+						next.merge(target, entry.getValue() / targets.size(), Double::sum);
+				}
+			}
+			mass = normalise(next, detectives);
+		}
+		int max = graph.getNodes().stream().mapToInt(Node::value).max().orElse(0);
+		double[] probabilities = new double[max + 1];
+		mass.forEach((node, p) -> probabilities[node] = p);
+		return probabilities;
+	}
+
+	private static Map<Integer, Double> normalise(Map<Integer, Double> mass,
+			Map<Colour, Integer> detectives) {
+		mass.keySet().removeAll(detectives.values());
+		double sum = mass.values().stream().mapToDouble(Double::doubleValue).sum();
+		Map<Integer, Double> normalised = new HashMap<>();
+		mass.forEach((node, p) -> {
+			if (p / sum >= MrXDistribution.PRUNE) normalised.put(node, p / sum);
+		});
+		return normalised;
+	}
+
+}
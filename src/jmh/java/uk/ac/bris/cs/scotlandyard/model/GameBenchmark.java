@@ -0,0 +1,141 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.neverPlayer;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+
+/**
+ * Plays complete games of {@link ScotlandYardModel} with random players on the
+ * standard map. Game n of a run starts MrX and the detectives at the
+ * {@link StandardGame} locations of seed n, and its players choose with a
+ * {@link Random} of seed n, so every run plays the same games.
+ * <br>
+ * {@link #game(Moves)} reports games per second and, as the {@code moves}
+ * counter, moves per second. {@link #turn(Turns)} samples single turns for
+ * the latency percentiles; with {@code -prof gc} its
+ * {@code gc.alloc.rate.norm} is the allocation per move:
+ *
+ * <pre>
+ * mvn -P benchmark test-compile exec:exec -Dbenchmark="GameBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GameBenchmark {
+
+	/**
+	 * MrX and the detectives
+	 */
+	@Param({ "2", "3", "4", "5", "6" })
+	public int players;
+
+	private ImmutableGraph<Integer, Transport> graph;
+	private int seed;
+
+	/**
+	 * Moves played, reported per second
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.OPERATIONS)
+	public static class Moves {
+
+		public long moves;
+
+	}
+
+	/**
+	 * A game in progress, replaced by the next one once it is over
+	 */
+	@State(Scope.Thread)
+	public static class Turns {
+
+		ScotlandYardModel game;
+		Random random;
+
+		@Setup(Level.Invocation)
+		public void nextGame(GameBenchmark benchmark) {
+			if (game != null && !game.isGameOver()) return;
+			random = new Random(benchmark.seed);
+			game = benchmark.create(neverPlayer());
+		}
+
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		graph = StandardGame.standardGraph();
+	}
+
+	// creates the next game with every player played by the given one
+	private ScotlandYardModel create(Player player) {
+		int seed = this.seed++;
+		List<Integer> locations = StandardGame.generateDetectiveLocations(seed, players - 1);
+		List<PlayerConfiguration> detectives = new ArrayList<>();
+		for (int i = 0; i < locations.size(); i++)
+			detectives.add(new PlayerConfiguration.Builder(Colour.values()[i + 1])
+					.using(player).with(StandardGame.generateDetectiveTickets())
+					.at(locations.get(i)).build());
+		return new ScotlandYardModel(StandardGame.ROUNDS, graph,
+				new PlayerConfiguration.Builder(BLACK).using(player)
+						.with(StandardGame.generateMrXTickets())
+						.at(StandardGame.generateMrXLocation(seed)).build(),
+				detectives.get(0),
+				detectives.subList(1, detectives.size()).toArray(new PlayerConfiguration[0]));
+	}
+
+	private static Move pick(Set<Move> moves, Random random) {
+		Iterator<Move> iterator = moves.iterator();
+		for (int i = random.nextInt(moves.size()); i > 0; i--)
+			iterator.next();
+		return iterator.next();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	public Set<Colour> game(Moves moves) {
+		Random random = new Random(seed);
+		ScotlandYardModel game = create((view, location, valid, callback) -> {
+			moves.moves++;
+			callback.accept(pick(valid, random));
+		});
+		while (!game.isGameOver())
+			game.startRotate();
+		return game.getWinningPlayers();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public ScotlandYardModel turn(Turns turns) {
+		ScotlandYardModel game = turns.game;
+		game.play(pick(game.nextTurn().get().moves(), turns.random));
+		return game;
+	}
+
+}
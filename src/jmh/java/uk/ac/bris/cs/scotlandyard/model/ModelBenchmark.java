@@ -0,0 +1,117 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static java.util.stream.Collectors.toList;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+
+/**
+ * The cost of the {@link ScotlandYardModel} itself: reading the map, creating
+ * a game, a round of {@link ScotlandYardModel#startRotate()} and
+ * {@link ScotlandYardModel#accept(Move)}, and checking for the end of the
+ * game. Games are on the standard map with MrX and five detectives at the
+ * {@link StandardGame} locations of the given seed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelBenchmark {
+
+	// plays the first move offered, synchronously
+	private static final Player FIRST = (view, location, moves, callback) -> callback
+			.accept(moves.iterator().next());
+
+	@Param({ "0", "1", "2" })
+	public int seed;
+
+	private List<String> lines;
+	private ImmutableGraph<Integer, Transport> graph;
+	private PlayerConfiguration mrX;
+	private PlayerConfiguration firstDetective;
+	private PlayerConfiguration[] restOfTheDetectives;
+	private ScotlandYardModel game;
+
+	@Setup
+	public void setUp() throws IOException {
+		try (InputStream stream = getClass().getClassLoader().getResourceAsStream("graph.txt")) {
+			if (stream == null) throw new IOException("Resource graph.txt not found");
+			lines = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))
+					.lines().collect(toList());
+		}
+		graph = ScotlandYardGraphReader.fromLines(lines);
+		mrX = new PlayerConfiguration.Builder(BLACK).using(FIRST)
+				.with(StandardGame.generateMrXTickets())
+				.at(StandardGame.generateMrXLocation(seed)).build();
+		List<Integer> locations = StandardGame.generateDetectiveLocations(seed, 5);
+		List<PlayerConfiguration> detectives = new ArrayList<>();
+		for (int i = 0; i < locations.size(); i++)
+			detectives.add(new PlayerConfiguration.Builder(Colour.values()[i + 1]).using(FIRST)
+					.with(StandardGame.generateDetectiveTickets()).at(locations.get(i)).build());
+		firstDetective = detectives.get(0);
+		restOfTheDetectives = detectives.subList(1, detectives.size())
+				.toArray(new PlayerConfiguration[0]);
+		game = create(graph);
+	}
+
+	private ScotlandYardModel create(Graph<Integer, Transport> graph) {
+		return new ScotlandYardModel(StandardGame.ROUNDS, graph, mrX, firstDetective,
+				restOfTheDetectives);
+	}
+
+	@Benchmark
+	public ImmutableGraph<Integer, Transport> fromLines() {
+		return ScotlandYardGraphReader.fromLines(lines);
+	}
+
+	@Benchmark
+	public ScotlandYardModel construct() {
+		return create(graph);
+	}
+
+	/**
+	 * Creates a game and plays one round, MrX and every detective; subtract
+	 * {@link #construct()} for the cost of the round alone
+	 */
+	@Benchmark
+	public ScotlandYardModel constructAndRotate() {
+		ScotlandYardModel game = create(graph);
+		game.startRotate();
+		return game;
+	}
+
+	/**
+	 * Evaluates every end condition; the model caches the result until the
+	 * game changes, so the cache is dropped first as a move would
+	 */
+	@Benchmark
+	public boolean isGameOver() {
+		game.invalidateMoves();
+		return game.isGameOver();
+	}
+
+}
@@ -0,0 +1,105 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+
+/**
+ * The cost of generating the valid moves of a turn with each
+ * {@link MoveGenerator}, for a detective and for MrX with and without DOUBLE
+ * tickets. Players stand at the {@link StandardGame} locations of the given
+ * seed on the standard map with their starting tickets. {@link #mrXCount()}
+ * counts the moves of MrX with a {@link MoveCounter} instead, whatever the
+ * engine.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoveGeneratorBenchmark {
+
+	@Param({ "index", "bitboard" })
+	public String engine;
+
+	@Param({ "0", "1", "2" })
+	public int seed;
+
+	private MoveGenerator generator;
+	private MoveCounter counter;
+	// MrX first, then five detectives
+	private final int[] locations = new int[6];
+	private int[] mrXTickets;
+	private int[] mrXTicketsWithoutDouble;
+	private int[] detectiveTickets;
+
+	@Setup
+	public void setUp() throws IOException {
+		AdjacencyIndex<Transport> index = ScotlandYardGraphReader.indexOf(
+				StandardGame.standardGraph());
+		switch (engine) {
+			case "index":
+				generator = new IndexMoveGenerator(index);
+				break;
+			case "bitboard":
+				generator = new BitboardMoveGenerator(index);
+				break;
+			default:
+				throw new IllegalArgumentException("Unknown engine " + engine);
+		}
+		counter = MoveCounter.of(index);
+		locations[0] = StandardGame.generateMrXLocation(seed);
+		List<Integer> detectives = StandardGame.generateDetectiveLocations(seed, 5);
+		for (int i = 0; i < detectives.size(); i++)
+			locations[i + 1] = detectives.get(i);
+		mrXTickets = ledger(StandardGame.generateMrXTickets());
+		mrXTicketsWithoutDouble = mrXTickets.clone();
+		mrXTicketsWithoutDouble[Ticket.DOUBLE.ordinal()] = 0;
+		detectiveTickets = ledger(StandardGame.generateDetectiveTickets());
+	}
+
+	private static int[] ledger(Map<Ticket, Integer> tickets) {
+		int[] ledger = new int[Ticket.values().length];
+		tickets.forEach((ticket, count) -> ledger[ticket.ordinal()] = count);
+		return ledger;
+	}
+
+	@Benchmark
+	public MoveSet detective() {
+		return generator.validMoves(Colour.BLUE, locations[1], detectiveTickets, locations,
+				true);
+	}
+
+	@Benchmark
+	public MoveSet mrX() {
+		return generator.validMoves(Colour.BLACK, locations[0], mrXTickets, locations, true);
+	}
+
+	@Benchmark
+	public MoveSet mrXWithoutDouble() {
+		return generator.validMoves(Colour.BLACK, locations[0], mrXTicketsWithoutDouble,
+				locations, true);
+	}
+
+	@Benchmark
+	public int mrXCount() {
+		return counter.count(Colour.BLACK, locations[0], mrXTickets, locations, true);
+	}
+
+}
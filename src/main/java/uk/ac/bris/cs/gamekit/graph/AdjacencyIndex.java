@@ -0,0 +1,172 @@
+package uk.ac.bris.cs.gamekit.graph;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Objects;
+
+/**
+ * An immutable, compressed sparse row index of a {@link Graph} with integer
+ * node values and enum edge data. Edges leaving a node {@code n} occupy the
+ * half-open range {@code [start(n), end(n))}; {@link #target(int)} and
+ * {@link #data(int)} resolve an edge in that range without boxing or hashing.
+ * <br>
+ * Node values are used directly as row numbers, so this index is intended for
+ * graphs with small, dense, non-negative node values (e.g. 1..199).
+ *
+ * @param <D> the type for {@link Edge} data
+ */
+public final class AdjacencyIndex<D extends Enum<D>> implements Serializable {
+
+	private static final long serialVersionUID = 4518093261485637297L;
+	private final D[] constants;
+	private final boolean[] nodes;
+	private final int[] offsets;
+	private final int[] targets;
+	private final byte[] data;
+
+	private AdjacencyIndex(D[] constants, boolean[] nodes, int[] offsets, int[] targets,
+			byte[] data) {
+		this.constants = constants;
+		this.nodes = nodes;
+		this.offsets = offsets;
+		this.targets = targets;
+		this.data = data;
+	}
+
+	/**
+	 * Builds an index of the given graph, edges of each node are kept in the
+	 * order returned by {@link Graph#getEdgesFrom(Node)}
+	 *
+	 * @param graph the graph to index; not null
+	 * @param type the enum type of the edge data; not null
+	 * @param <D> the type for {@link Edge} data
+	 * @return the index; never null
+	 */
+	public static <D extends Enum<D>> AdjacencyIndex<D> of(Graph<Integer, D> graph,
+			Class<D> type) {
+		Objects.requireNonNull(graph);
+		D[] constants = Objects.requireNonNull(type).getEnumConstants();
+		if (constants.length > Byte.MAX_VALUE)
+			throw new IllegalArgumentException(type + " has too many constants to index");
+		int max = 0;
+		for (Node<Integer> node : graph.getNodes()) {
+			if (node.value() < 0)
+				throw new IllegalArgumentException(node + " has a negative value");
+			max = Math.max(max, node.value());
+		}
+		boolean[] nodes = new boolean[max + 1];
+		int[] offsets = new int[max + 2];
+		for (Node<Integer> node : graph.getNodes()) {
+			nodes[node.value()] = true;
+			offsets[node.value() + 1] = graph.getEdgesFrom(node).size();
+		}
+		for (int i = 1; i < offsets.length; i++)
+			offsets[i] += offsets[i - 1];
+		int[] targets = new int[offsets[offsets.length - 1]];
+		byte[] data = new byte[targets.length];
+		for (Node<Integer> node : graph.getNodes()) {
+			int i = offsets[node.value()];
+			Collection<Edge<Integer, D>> edges = graph.getEdgesFrom(node);
+			for (Edge<Integer, D> edge : edges) {
+				targets[i] = edge.destination().value();
+				data[i] = (byte) edge.data().ordinal();
+				i++;
+			}
+		}
+		return new AdjacencyIndex<>(constants, nodes, offsets, targets, data);
+	}
+
+	/**
+	 * Checks whether a node with the given value exists
+	 */
+	public boolean containsNode(int node) {
+		return node >= 0 && node < nodes.length && nodes[node];
+	}
+
+	/**
+	 * @return the largest node value in the graph, or 0 if the graph is empty
+	 */
+	public int maxNode() {
+		return nodes.length - 1;
+	}
+
+	/**
+	 * @return the number of directed edges in the index
+	 */
+	public int edgeCount() {
+		return targets.length;
+	}
+
+	/**
+	 * @param node the source node value
+	 * @return the first edge position of the given node; nodes not in the
+	 *         graph have an empty range
+	 */
+	public int start(int node) {
+		return node >= 0 && node < nodes.length ? offsets[node] : 0;
+	}
+
+	/**
+	 * @param node the source node value
+	 * @return one past the last edge position of the given node
+	 */
+	public int end(int node) {
+		return node >= 0 && node < nodes.length ? offsets[node + 1] : 0;
+	}
+
+	/**
+	 * @param node the source node value
+	 * @return number of edges coming from the given node
+	 */
+	public int degree(int node) {
+		return end(node) - start(node);
+	}
+
+	/**
+	 * @param edge an edge position in {@code [start(n), end(n))}
+	 * @return the destination node value of the edge
+	 */
+	public int target(int edge) {
+		return targets[edge];
+	}
+
+	/**
+	 * @param edge an edge position in {@code [start(n), end(n))}
+	 * @return the {@link Enum#ordinal()} of the edge data
+	 */
+	public int ordinal(int edge) {
+		return data[edge];
+	}
+
+	/**
+	 * @param edge an edge position in {@code [start(n), end(n))}
+	 * @return the edge data; never null
+	 */
+	public D data(int edge) {
+		return constants[data[edge]];
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		AdjacencyIndex<?> that = (AdjacencyIndex<?>) o;
+		return Arrays.equals(constants, that.constants)
+				&& Arrays.equals(nodes, that.nodes)
+				&& Arrays.equals(offsets, that.offsets)
+				&& Arrays.equals(targets, that.targets)
+				&& Arrays.equals(data, that.data);
+	}
+
+	@Override
+	public int hashCode() {
+		return Objects.hash(Arrays.hashCode(offsets), Arrays.hashCode(targets),
+				Arrays.hashCode(data));
+	}
+
+	@Override
+	public String toString() {
+		return "AdjacencyIndex{nodes=" + (nodes.length - 1) + ", edges=" + targets.length + '}';
+	}
+}
@@ -0,0 +1,259 @@
+package uk.ac.bris.cs.gamekit.graph;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Precomputed all-pairs shortest path lengths of an {@link AdjacencyIndex},
+ * one table for every subset of edge data, so "the fewest moves from A to B
+ * using only buses and taxis" is a single array read. A subset is given as a
+ * mask with bit {@link Enum#ordinal()} set for every edge data allowed, see
+ * {@link #mask(Iterable)}.
+ * <br>
+ * Tables take {@code 2^constants * (maxNode + 1)^2} bytes, e.g. 640 KB for four
+ * transports over 199 nodes, and are built with one breadth first search per
+ * subset and source node, in parallel. {@link #cached(AdjacencyIndex, Class, Path)}
+ * keeps them on disk between runs.
+ *
+ * @param <D> the type for {@link Edge} data
+ */
+public final class DistanceTable<D extends Enum<D>> {
+
+	/**
+	 * The distance between nodes with no path between them
+	 */
+	public static final int UNREACHABLE = Integer.MAX_VALUE;
+
+	// at most 256 tables
+	private static final int MAX_CONSTANTS = 8;
+	// distances are unsigned bytes, this one marks no path
+	private static final int NO_PATH = 0xFF;
+	private static final int MAGIC = 0x5944_5354;
+	private static final int VERSION = 1;
+
+	private final AdjacencyIndex<D> index;
+	private final int nodes;
+	// distances[mask][from * nodes + to]
+	private final byte[][] distances;
+
+	private DistanceTable(AdjacencyIndex<D> index, byte[][] distances) {
+		this.index = index;
+		this.nodes = index.maxNode() + 1;
+		this.distances = distances;
+	}
+
+	/**
+	 * Builds the tables of the given index
+	 *
+	 * @param index the index; not null
+	 * @param type the enum type of the edge data; not null
+	 * @param <D> the type for {@link Edge} data
+	 * @return the tables; never null
+	 * @throws IllegalArgumentException if the type has more than 8 constants
+	 *         or a shortest path is longer than 254 edges
+	 */
+	public static <D extends Enum<D>> DistanceTable<D> of(AdjacencyIndex<D> index,
+			Class<D> type) {
+		Objects.requireNonNull(index);
+		int constants = Objects.requireNonNull(type).getEnumConstants().length;
+		if (constants > MAX_CONSTANTS)
+			throw new IllegalArgumentException(type + " has too many constants to tabulate");
+		int nodes = index.maxNode() + 1;
+		byte[][] distances = new byte[1 << constants][nodes * nodes];
+		// a search writes only its own row, so rows can be filled in parallel
+		IntStream.range(0, distances.length * nodes).parallel().forEach(job -> search(
+				index, job / nodes, job % nodes, distances[job / nodes], new int[nodes]));
+		return new DistanceTable<>(index, distances);
+	}
+
+	private static void search(AdjacencyIndex<?> index, int mask, int source, byte[] table,
+			int[] queue) {
+		int nodes = queue.length;
+		int row = source * nodes;
+		for (int node = 0; node < nodes; node++)
+			table[row + node] = (byte) NO_PATH;
+		if (!index.containsNode(source)) return;
+		table[row + source] = 0;
+		queue[0] = source;
+		int head = 0;
+		int tail = 1;
+		while (head < tail) {
+			int node = queue[head++];
+			int next = (table[row + node] & 0xFF) + 1;
+			if (next >= NO_PATH)
+				throw new IllegalArgumentException("Path from " + source + " is too long");
+			for (int edge = index.start(node); edge < index.end(node); edge++) {
+				int target = index.target(edge);
+				if ((mask >>> index.ordinal(edge) & 1) == 0
+						|| (table[row + target] & 0xFF) != NO_PATH) continue;
+				table[row + target] = (byte) next;
+				queue[tail++] = target;
+			}
+		}
+	}
+
+	/**
+	 * Reads the tables of the given index from a file written by an earlier
+	 * call, or builds them and writes the file. A missing, unreadable or
+	 * outdated file is replaced; if it cannot be written the tables are
+	 * still returned.
+	 *
+	 * @param index the index; not null
+	 * @param type the enum type of the edge data; not null
+	 * @param file the cache file; not null
+	 * @param <D> the type for {@link Edge} data
+	 * @return the tables; never null
+	 */
+	public static <D extends Enum<D>> DistanceTable<D> cached(AdjacencyIndex<D> index,
+			Class<D> type, Path file) {
+		Objects.requireNonNull(file);
+		try (InputStream in = Files.newInputStream(file)) {
+			DistanceTable<D> table = read(index, type, in);
+			if (table != null) return table;
+		} catch (IOException e) {
+			// no usable cache, build it
+		}
+		DistanceTable<D> table = of(index, type);
+		try {
+			Path parent = file.toAbsolutePath().getParent();
+			Files.createDirectories(parent);
+			// written aside and moved so concurrent readers never see half a file
+			Path temporary = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+			try (OutputStream out = Files.newOutputStream(temporary)) {
+				table.write(out);
+			}
+			Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (IOException e) {
+			// the cache is an optimisation only
+		}
+		return table;
+	}
+
+	/**
+	 * Writes the tables with the edges they were built from
+	 *
+	 * @param out the stream, not closed; not null
+	 * @throws IOException if writing fails
+	 */
+	public void write(OutputStream out) throws IOException {
+		DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+		data.writeInt(MAGIC);
+		data.writeInt(VERSION);
+		data.writeInt(distances.length);
+		writeEdges(index, data);
+		for (byte[] table : distances)
+			data.write(table);
+		data.flush();
+	}
+
+	private static void writeEdges(AdjacencyIndex<?> index, DataOutputStream data)
+			throws IOException {
+		data.writeInt(index.maxNode());
+		data.writeInt(index.edgeCount());
+		for (int node = 0; node <= index.maxNode(); node++) {
+			data.writeBoolean(index.containsNode(node));
+			data.writeInt(index.degree(node));
+			for (int edge = index.start(node); edge < index.end(node); edge++) {
+				data.writeInt(index.target(edge));
+				data.writeByte(index.ordinal(edge));
+			}
+		}
+	}
+
+	/**
+	 * Reads tables written by {@link #write(OutputStream)}
+	 *
+	 * @param index the index the tables must have been built from; not null
+	 * @param type the enum type of the edge data; not null
+	 * @param in the stream, not closed; not null
+	 * @param <D> the type for {@link Edge} data
+	 * @return the tables, or null if they were built from other edges
+	 * @throws IOException if reading fails
+	 */
+	public static <D extends Enum<D>> DistanceTable<D> read(AdjacencyIndex<D> index,
+			Class<D> type, InputStream in) throws IOException {
+		Objects.requireNonNull(index);
+		DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+		int masks = 1 << Objects.requireNonNull(type).getEnumConstants().length;
+		if (data.readInt() != MAGIC || data.readInt() != VERSION || data.readInt() != masks
+				|| data.readInt() != index.maxNode() || data.readInt() != index.edgeCount())
+			return null;
+		for (int node = 0; node <= index.maxNode(); node++) {
+			if (data.readBoolean() != index.containsNode(node)
+					|| data.readInt() != index.degree(node)) return null;
+			for (int edge = index.start(node); edge < index.end(node); edge++)
+				if (data.readInt() != index.target(edge)
+						|| data.readByte() != index.ordinal(edge)) return null;
+		}
+		int nodes = index.maxNode() + 1;
+		byte[][] distances = new byte[masks][nodes * nodes];
+		for (byte[] table : distances)
+			data.readFully(table);
+		return new DistanceTable<>(index, distances);
+	}
+
+	/**
+	 * @param allowed the edge data that may be used; not null
+	 * @return the mask of the given edge data
+	 */
+	public int mask(Iterable<D> allowed) {
+		int mask = 0;
+		for (D d : allowed)
+			mask |= 1 << d.ordinal();
+		return mask;
+	}
+
+	/**
+	 * @return the mask allowing every edge
+	 */
+	public int all() {
+		return distances.length - 1;
+	}
+
+	/**
+	 * @param mask the edge data that may be used, see {@link #mask(Iterable)}
+	 * @param from the source node value
+	 * @param to the destination node value
+	 * @return the fewest edges from source to destination, or
+	 *         {@link #UNREACHABLE}; 0 if they are the same node
+	 */
+	public int distance(int mask, int from, int to) {
+		if (from < 0 || from >= nodes || to < 0 || to >= nodes) return UNREACHABLE;
+		int distance = distances[mask & (distances.length - 1)][from * nodes + to] & 0xFF;
+		return distance == NO_PATH ? UNREACHABLE : distance;
+	}
+
+	/**
+	 * @param from the source node value
+	 * @param to the destination node value
+	 * @return the fewest edges from source to destination using any edge, or
+	 *         {@link #UNREACHABLE}
+	 */
+	public int distance(int from, int to) {
+		return distance(all(), from, to);
+	}
+
+	/**
+	 * @return the index the tables were built from; never null
+	 */
+	public AdjacencyIndex<D> index() {
+		return index;
+	}
+
+	@Override
+	public String toString() {
+		return "DistanceTable{nodes=" + (nodes - 1) + ", masks=" + distances.length + '}';
+	}
+
+}
@@ -6,7 +6,13 @@ import java.util.concurrent.TimeUnit;
 
 public class StandardTimer implements Timer {
 
-	private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1);
+	// a daemon thread so pending timeouts never keep the JVM alive
+	private final ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1,
+			runnable -> {
+				Thread thread = new Thread(runnable, "timer");
+				thread.setDaemon(true);
+				return thread;
+			});
 
 	public StandardTimer() {
 		scheduler.setRemoveOnCancelPolicy(true);
@@ -1,29 +1,34 @@
 package uk.ac.bris.cs.scotlandyard.ai;
 
+import static java.util.Objects.requireNonNull;
 import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 
+import java.time.Duration;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Set;
-import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Stream;
 
-import com.google.common.collect.ImmutableSet;
-
+import javafx.geometry.Point2D;
+import javafx.scene.image.Image;
 import javafx.scene.layout.Pane;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.timer.StandardTimer;
+import uk.ac.bris.cs.gamekit.timer.Timer;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
-import uk.ac.bris.cs.scotlandyard.model.Move;
 import uk.ac.bris.cs.scotlandyard.model.Player;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGame;
-import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
 
 /**
  * <b> Not a public API, do not use!</b> <br>
@@ -35,13 +40,56 @@ import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
  */
 public class AIPool<G> {
 
+	/**
+	 * Where AI players choose their moves
+	 */
+	public enum Execution {
+		/**
+		 * On a work stealing pool shared by every game in the JVM
+		 */
+		PLATFORM,
+
+		/**
+		 * On a new thread per move, see {@link VirtualThreads}. The threads
+		 * belong to the pool and are interrupted by {@link #terminate()}.
+		 */
+		VIRTUAL
+	}
+
+	private static final ExecutorService SHARED = Executors.newWorkStealingPool();
+	private static final Timer TIMER = new StandardTimer();
+
 	private final VisualiserSurface surface;
 	private final Consumer<Throwable> exceptionHandler;
 	private final Map<G, AIGroup> groups = new HashMap<>();
+	private final Execution execution;
+	private final ExecutorService executor;
+	private final Duration budget;
 
 	public AIPool(VisualiserSurface surface, Consumer<Throwable> exceptionHandler) {
+		this(surface, exceptionHandler, Execution.PLATFORM, null);
+	}
+
+	public AIPool(VisualiserSurface surface, Consumer<Throwable> exceptionHandler,
+			Execution execution) {
+		this(surface, exceptionHandler, execution, null);
+	}
+
+	/**
+	 * @param surface creates the visualiser surfaces of AIs
+	 * @param exceptionHandler receives exceptions thrown by AIs
+	 * @param execution where AI players choose their moves; not null
+	 * @param budget the time per move before the latest candidate of an
+	 *        {@link AnytimePlayer}, or else a fallback move, is played for an
+	 *        AI, see {@link DeadlinePlayer}; null for no limit
+	 */
+	public AIPool(VisualiserSurface surface, Consumer<Throwable> exceptionHandler,
+			Execution execution, Duration budget) {
 		this.surface = surface;
 		this.exceptionHandler = exceptionHandler;
+		this.execution = requireNonNull(execution);
+		this.executor = execution == Execution.VIRTUAL ? VirtualThreads.newExecutor() : SHARED;
+		this.budget = budget;
 	}
 
 	public void addToGroup(G group, Colour colour, AI ai) {
@@ -79,6 +127,7 @@ public class AIPool<G> {
 				exceptionHandler.accept(e);
 			}
 		});
+		if (execution == Execution.VIRTUAL) executor.shutdownNow();
 		surface.onDestroy();
 	}
 
@@ -94,6 +143,7 @@ public class AIPool<G> {
 
 		private final Map<Colour, AI> ais = new HashMap<>();
 		private Map<AI, PlayerFactory> factories = new HashMap<>();
+		private final Map<Class<?>, Object> shared = new ConcurrentHashMap<>();
 
 		void add(Colour colour, AI ai) {
 			ais.put(colour, ai);
@@ -103,54 +153,73 @@ public class AIPool<G> {
 			factories = ais.values().stream()
 					.distinct()
 					.collect(toMap(Function.identity(), AI::instantiate));
+			MrXTracker tracker = new MrXTracker(game);
+			game.registerSpectator(tracker);
+			shared.put(MrXTracker.class, tracker);
+			ResourceProvider provider = new GroupResources(manager);
 			factories.forEach((ai, factory) -> {
 				factory.createSpectators(game).forEach(game::registerSpectator);
 				Pane pane = surface.onCreate(ai);
-				factory.ready(() -> pane, manager);
+				factory.ready(() -> pane, provider);
 			});
 		}
 
 		void terminate() throws Exception {
 			factories.values().forEach(PlayerFactory::finish);
+			shared.clear();
 		}
 
-		public Optional<Player> createPlayer(Colour colour) {
-			if (!ais.containsKey(colour)) return Optional.empty();
-			return Optional.of(
-					new ThreadedPlayer(
-							factories.get(ais.get(colour)).createPlayer(colour),
-							exceptionHandler));
-		}
+		// resources of the manager plus objects shared within this group
+		private class GroupResources implements ResourceProvider {
 
-	}
+			private final ResourceProvider manager;
+
+			GroupResources(ResourceProvider manager) {
+				this.manager = manager;
+			}
+
+			@Override
+			public Image getMap() {
+				return manager.getMap();
+			}
+
+			@Override
+			public Image getTicket(Ticket ticket) {
+				return manager.getTicket(ticket);
+			}
 
-	static class ThreadedPlayer implements Player {
+			@Override
+			public Graph<Integer, Transport> getGraph() {
+				return manager.getGraph();
+			}
 
-		final static ExecutorService service = Executors.newWorkStealingPool();
+			@Override
+			public Point2D coordinateAtNode(int node) {
+				return manager.coordinateAtNode(node);
+			}
 
-		private final Player player;
-		private final Consumer<Throwable> exceptionHandler;
+			@Override
+			public <T> T shared(Class<T> type, Supplier<? extends T> factory) {
+				return type.cast(shared.computeIfAbsent(type, t -> factory.get()));
+			}
 
-		private ThreadedPlayer(Player player, Consumer<Throwable> exceptionHandler) {
-			this.player = player;
-			this.exceptionHandler = exceptionHandler;
+			@Override
+			public <T> Optional<T> registered(Class<T> type) {
+				return Optional.ofNullable(type.cast(shared.get(type)));
+			}
 		}
 
-		@Override
-		public void makeMove(ScotlandYardView view,
-				int location,
-				Set<Move> moves,
-				Consumer<Move> callback) {
-			service.submit((Callable<Void>) () -> {
-				try {
-					player.makeMove(view, location, ImmutableSet.copyOf(moves), callback);
-				} catch (Throwable e) {
-					e.printStackTrace();
-					exceptionHandler.accept(e);
-				}
-				return null;
-			});
+		public Optional<Player> createPlayer(Colour colour) {
+			if (!ais.containsKey(colour)) return Optional.empty();
+			return Optional.of(
+					new DeadlinePlayer(
+							factories.get(ais.get(colour)).createPlayer(colour),
+							budget,
+							executor,
+							TIMER,
+							exceptionHandler));
 		}
+
 	}
 
 }
@@ -0,0 +1,72 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * A player that can be stopped at any time, e.g. an iterative deepening
+ * search. Instead of calling back once, the player offers better and better
+ * candidate moves while it searches; the latest candidate is played when the
+ * search returns or when the {@link Deadline} of the move expires, whichever
+ * comes first.
+ * <br>
+ * Players created by a {@link PlayerFactory} that implement this interface are
+ * recognised by the {@link AIPool}, so a search runs for exactly the time
+ * budget of the game regardless of the hardware.
+ */
+public interface AnytimePlayer extends Player {
+
+	/**
+	 * Receives the candidates of a search
+	 */
+	interface Candidates {
+
+		/**
+		 * Offers a move, replacing any earlier candidate
+		 *
+		 * @param move the move; must be one of the valid moves given to the
+		 *        search
+		 * @param score the score of the move from the player's point of
+		 *        view, higher is better; only used for diagnostics
+		 * @throws IllegalArgumentException if the move is not valid
+		 */
+		void offer(Move move, double score);
+
+	}
+
+	/**
+	 * Searches for a move, offering candidates as they are found. The search
+	 * should poll {@link Deadline#current()} and return once it has expired;
+	 * candidates offered after that are ignored.
+	 *
+	 * @param view a view of the current game, with the same guarantees as in
+	 *        {@link #makeMove(ScotlandYardView, int, Set, Consumer)}
+	 * @param location the location of the player
+	 * @param moves valid moves the player can make; never empty and never null
+	 * @param candidates receives the candidates; never null
+	 */
+	void search(ScotlandYardView view, int location, Set<Move> moves, Candidates candidates);
+
+	/**
+	 * Runs {@link #search(ScotlandYardView, int, Set, Candidates)} to
+	 * completion and plays the latest candidate, or any valid move if none
+	 * was offered
+	 */
+	@Override
+	default void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+			Consumer<Move> callback) {
+		AtomicReference<Move> latest = new AtomicReference<>(moves.iterator().next());
+		search(view, location, moves, (move, score) -> {
+			if (!moves.contains(move))
+				throw new IllegalArgumentException("Candidate " + move + " is not a valid move");
+			latest.set(move);
+		});
+		callback.accept(latest.get());
+	}
+
+}
@@ -0,0 +1,107 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+
+import java.time.Duration;
+
+/**
+ * The time an AI has left to choose a move. AIs should poll
+ * {@link #expired()} or {@link #remaining()} while searching and call back
+ * before the deadline; once it passes the framework plays a fallback move
+ * and ignores the late answer.
+ * <br>
+ * The deadline of the move being chosen is available from {@link #current()}
+ * on the thread {@link uk.ac.bris.cs.scotlandyard.model.Player#makeMove} was
+ * called on. Deadlines are immutable and may be passed to other threads.
+ */
+public final class Deadline {
+
+	private static final Deadline NONE = new Deadline(0, false);
+	private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+	private final long expiresAt;
+	private final boolean limited;
+
+	private Deadline(long expiresAt, boolean limited) {
+		this.expiresAt = expiresAt;
+		this.limited = limited;
+	}
+
+	/**
+	 * @param budget the time from now; not null
+	 * @return a deadline that expires after the budget; never null
+	 */
+	public static Deadline after(Duration budget) {
+		if (budget.isNegative()) throw new IllegalArgumentException("Negative budget " + budget);
+		return new Deadline(System.nanoTime() + budget.toNanos(), true);
+	}
+
+	/**
+	 * @return a deadline that never expires; never null
+	 */
+	public static Deadline none() {
+		return NONE;
+	}
+
+	/**
+	 * @return the deadline of the move being chosen on this thread, or
+	 *         {@link #none()} if there is none; never null
+	 */
+	public static Deadline current() {
+		Deadline deadline = CURRENT.get();
+		return deadline == null ? NONE : deadline;
+	}
+
+	/**
+	 * Runs a task with this deadline as {@link #current()}
+	 *
+	 * @param task the task; not null
+	 */
+	public void runWithin(Runnable task) {
+		requireNonNull(task);
+		Deadline previous = CURRENT.get();
+		CURRENT.set(this);
+		try {
+			task.run();
+		} finally {
+			if (previous == null) CURRENT.remove();
+			else CURRENT.set(previous);
+		}
+	}
+
+	/**
+	 * @return true if this deadline ever expires
+	 */
+	public boolean limited() {
+		return limited;
+	}
+
+	/**
+	 * @return true if the deadline has passed
+	 */
+	public boolean expired() {
+		return limited && System.nanoTime() - expiresAt >= 0;
+	}
+
+	/**
+	 * @return the time left in nanoseconds, 0 once expired and
+	 *         {@link Long#MAX_VALUE} if not limited
+	 */
+	public long remainingNanos() {
+		if (!limited) return Long.MAX_VALUE;
+		return Math.max(0, expiresAt - System.nanoTime());
+	}
+
+	/**
+	 * @return the time left, zero once expired; never null
+	 */
+	public Duration remaining() {
+		return Duration.ofNanos(remainingNanos());
+	}
+
+	@Override
+	public String toString() {
+		return limited ? "Deadline{remaining=" + remaining() + '}' : "Deadline{none}";
+	}
+
+}
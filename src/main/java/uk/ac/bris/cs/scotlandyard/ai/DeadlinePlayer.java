@@ -0,0 +1,152 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+import com.google.common.collect.ImmutableSet;
+
+import uk.ac.bris.cs.gamekit.timer.Timer;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * Runs the moves of a player on an executor, each within a time budget. The
+ * player sees its {@link Deadline} through {@link Deadline#current()}. If it
+ * has not called back when the budget runs out a random valid move is played
+ * for it, and whatever it answers afterwards is ignored. Exactly one move is
+ * passed on per {@link #makeMove(ScotlandYardView, int, Set, Consumer)}, and
+ * always from a thread of the executor: the timer only hands the fallback
+ * move over, so a slow callback never holds up the deadlines of other games.
+ * <br>
+ * An {@link AnytimePlayer} is searched instead; its latest candidate is played
+ * when the search returns or the budget runs out, and a random move only if it
+ * has offered none by then.
+ */
+public final class DeadlinePlayer implements Player {
+
+	private final Player player;
+	private final Duration budget;
+	private final ExecutorService executor;
+	private final Timer timer;
+	private final Consumer<Throwable> exceptionHandler;
+
+	/**
+	 * @param player the player to run; not null
+	 * @param budget the time per move, or null for no limit
+	 * @param executor runs the player; not null
+	 * @param timer plays the fallback moves; not null
+	 * @param exceptionHandler receives anything the player throws, unless a
+	 *        move is asked for with its own handler; not null
+	 */
+	public DeadlinePlayer(Player player, Duration budget, ExecutorService executor, Timer timer,
+			Consumer<Throwable> exceptionHandler) {
+		if (budget != null && budget.isNegative())
+			throw new IllegalArgumentException("Negative budget " + budget);
+		this.player = requireNonNull(player);
+		this.budget = budget;
+		this.executor = requireNonNull(executor);
+		this.timer = requireNonNull(timer);
+		this.exceptionHandler = requireNonNull(exceptionHandler);
+	}
+
+	@Override
+	public void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+			Consumer<Move> callback) {
+		makeMove(view, location, moves, callback, exceptionHandler);
+	}
+
+	/**
+	 * Asks for a move like {@link #makeMove(ScotlandYardView, int, Set, Consumer)}
+	 * but reports failures to a handler of this move only, so a player that
+	 * throws after its fallback move has been played cannot fail a later move
+	 *
+	 * @param view the view of the game; not null
+	 * @param location the location of the player
+	 * @param moves the valid moves; not null
+	 * @param callback receives the move; not null
+	 * @param failure receives anything the player throws while choosing this
+	 *        move, possibly after the callback, and anything the callback
+	 *        throws; not null
+	 */
+	public void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+			Consumer<Move> callback, Consumer<Throwable> failure) {
+		requireNonNull(failure);
+		Set<Move> offered = ImmutableSet.copyOf(moves);
+		Deadline deadline = budget == null ? Deadline.none() : Deadline.after(budget);
+		Decision decision = new Decision(offered, callback, failure);
+		if (budget != null) {
+			decision.expiry = timer.schedule(budget.toNanos(), NANOSECONDS,
+					() -> executor.execute(decision::commitLatest));
+		}
+		executor.submit((Callable<Void>) () -> {
+			try {
+				deadline.runWithin(() -> {
+					if (player instanceof AnytimePlayer) {
+						((AnytimePlayer) player).search(view, location, offered, decision);
+						decision.commitLatest();
+					} else player.makeMove(view, location, offered, decision::commit);
+				});
+			} catch (Throwable e) {
+				e.printStackTrace();
+				failure.accept(e);
+			}
+			return null;
+		});
+	}
+
+	// passes on the first move committed, from the player or the timer
+	private static final class Decision implements AnytimePlayer.Candidates {
+
+		private final Set<Move> moves;
+		private final Consumer<Move> callback;
+		private final Consumer<Throwable> failure;
+		private final AtomicBoolean committed = new AtomicBoolean();
+		private volatile Move latest;
+		private volatile ScheduledFuture<?> expiry;
+
+		Decision(Set<Move> moves, Consumer<Move> callback, Consumer<Throwable> failure) {
+			this.moves = moves;
+			this.callback = callback;
+			this.failure = failure;
+		}
+
+		@Override
+		public void offer(Move move, double score) {
+			if (!moves.contains(move))
+				throw new IllegalArgumentException("Candidate " + move + " is not a valid move");
+			latest = move;
+		}
+
+		void commitLatest() {
+			Move move = latest;
+			if (move == null) move = new ArrayList<>(moves)
+					.get(ThreadLocalRandom.current().nextInt(moves.size()));
+			commit(move);
+		}
+
+		void commit(Move move) {
+			if (!committed.compareAndSet(false, true)) return;
+			ScheduledFuture<?> expiry = this.expiry;
+			if (expiry != null) expiry.cancel(false);
+			try {
+				callback.accept(move);
+			} catch (Throwable e) {
+				e.printStackTrace();
+				failure.accept(e);
+			}
+		}
+
+	}
+
+}
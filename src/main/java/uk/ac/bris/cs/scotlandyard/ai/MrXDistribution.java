@@ -0,0 +1,250 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.TicketReach;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * A probability distribution over the nodes MrX may be at, as far as the
+ * detectives can tell. Where {@link MrXTracker} only knows whether MrX may be
+ * at a node, this weighs every node by how likely MrX is to have moved there
+ * under a {@link Prior}.
+ * <br>
+ * The distribution is a {@link Spectator}, typically created by
+ * {@link PlayerFactory#createSpectators(ScotlandYardView)}. Each hidden ticket
+ * MrX uses pushes the mass of every node along the edges of that ticket, a
+ * reveal round puts all mass on the revealed node, nodes held by detectives
+ * lose their mass, and the rest is normalised to sum to one. Nodes below
+ * {@link #PRUNE} are dropped so the mass stays on plausible nodes. Queries
+ * never block and may be made from any thread.
+ */
+public final class MrXDistribution implements Spectator {
+
+	/**
+	 * Probabilities below this are set to zero after every update
+	 */
+	public static final double PRUNE = 1e-9;
+
+	/**
+	 * Weighs the edges MrX may take with a ticket
+	 */
+	@FunctionalInterface
+	public interface Prior {
+
+		/**
+		 * Every route is equally likely: a node reached by more edges gets
+		 * more mass
+		 */
+		Prior PATHS = (transport, choices) -> 1;
+
+		/**
+		 * MrX picks one of the edges of his ticket uniformly at random
+		 */
+		Prior WALK = (transport, choices) -> 1d / choices;
+
+		/**
+		 * Weighs edges by their transport, e.g. learned from past games. With
+		 * a SECRET ticket MrX is more likely to take a transport with a
+		 * higher weight; other tickets only have edges of one transport.
+		 *
+		 * @param weights the weight of every transport, missing transports
+		 *        have weight 0; not null
+		 * @return the prior; never null
+		 */
+		static Prior byTransport(Map<Transport, Double> weights) {
+			Map<Transport, Double> copy = new EnumMap<>(Transport.class);
+			copy.putAll(requireNonNull(weights));
+			return (transport, choices) -> copy.getOrDefault(transport, 0d) / choices;
+		}
+
+		/**
+		 * @param transport the transport of the edge
+		 * @param choices the number of edges leaving the same node that MrX
+		 *        may take with the ticket, at least 1
+		 * @return the relative weight of the edge, not negative
+		 */
+		double weight(Transport transport, int choices);
+
+	}
+
+	private final int nodes;
+	// per ticket ordinal a compressed sparse row of weighted edges: edges of
+	// node n are [starts[n], starts[n + 1])
+	private final int[][] starts = new int[Ticket.values().length][];
+	private final int[][] targets = new int[Ticket.values().length][];
+	private final double[][] weights = new double[Ticket.values().length][];
+	private final double[] uniform;
+	// replaced, never modified, on every update
+	private volatile double[] probabilities;
+
+	/**
+	 * Creates a distribution for a game that has not started yet. MrX may
+	 * start anywhere detectives are not, or at his last known location if he
+	 * has already shown himself.
+	 *
+	 * @param view the view of the game; not null
+	 * @param prior weighs the edges MrX may take; not null
+	 */
+	public MrXDistribution(ScotlandYardView view, Prior prior) {
+		requireNonNull(view);
+		requireNonNull(prior);
+		AdjacencyIndex<Transport> index = ScotlandYardGraphReader.indexOf(view.getGraph());
+		this.nodes = index.maxNode() + 1;
+		for (Ticket ticket : TicketReach.TRAVEL) {
+			int[] start = new int[nodes + 1];
+			int[] target = new int[index.edgeCount()];
+			double[] weight = new double[index.edgeCount()];
+			int edges = 0;
+			for (int node = 0; node < nodes; node++) {
+				start[node] = edges;
+				for (int edge = index.start(node); edge < index.end(node); edge++) {
+					if (ticket != SECRET && Ticket.fromTransport(index.data(edge)) != ticket)
+						continue;
+					target[edges++] = edge;
+				}
+				for (int edge = start[node]; edge < edges; edge++) {
+					Transport transport = index.data(target[edge]);
+					weight[edge] = prior.weight(transport, edges - start[node]);
+					if (!(weight[edge] >= 0))
+						throw new IllegalArgumentException(
+								"Weight " + weight[edge] + " for " + transport);
+					target[edge] = index.target(target[edge]);
+				}
+			}
+			start[nodes] = edges;
+			starts[ticket.ordinal()] = start;
+			targets[ticket.ordinal()] = Arrays.copyOf(target, edges);
+			weights[ticket.ordinal()] = Arrays.copyOf(weight, edges);
+		}
+		this.uniform = new double[nodes];
+		for (int node = 0; node < nodes; node++)
+			if (index.containsNode(node)) uniform[node] = 1;
+		int last = view.getPlayerLocation(BLACK).orElse(0);
+		double[] initial;
+		if (last > 0 && last < nodes && index.containsNode(last)) {
+			initial = new double[nodes];
+			initial[last] = 1;
+		} else {
+			initial = uniform.clone();
+		}
+		this.probabilities = settle(view, initial, false);
+	}
+
+	// removes detectives, normalises and prunes; all mass lost falls back to
+	// uniform over the free nodes
+	private double[] settle(ScotlandYardView view, double[] mass, boolean fallback) {
+		for (Colour colour : view.getPlayers()) {
+			if (colour.isMrX()) continue;
+			int location = view.getPlayerLocation(colour).orElse(-1);
+			if (location >= 0 && location < nodes) mass[location] = 0;
+		}
+		double sum = 0;
+		for (double p : mass)
+			sum += p;
+		if (!(sum > 0)) return fallback ? mass : settle(view, uniform.clone(), true);
+		for (int node = 0; node < nodes; node++) {
+			double p = mass[node] / sum;
+			mass[node] = p < PRUNE ? 0 : p;
+		}
+		return mass;
+	}
+
+	@Override
+	public void onMoveMade(ScotlandYardView view, Move move) {
+		// double moves are followed by their two ticket moves
+		if (!(move instanceof TicketMove)) return;
+		TicketMove ticketMove = (TicketMove) move;
+		double[] current = probabilities;
+		double[] next;
+		if (ticketMove.colour().isDetective()) {
+			next = current.clone();
+		} else if (view.getRounds().get(view.getCurrentRound() - 1)) {
+			// the round has already been counted when MrX moves are notified
+			next = new double[nodes];
+			next[ticketMove.destination()] = 1;
+		} else {
+			int ticket = ticketMove.ticket().ordinal();
+			int[] start = starts[ticket];
+			if (start == null) return;
+			int[] target = targets[ticket];
+			double[] weight = weights[ticket];
+			next = new double[nodes];
+			for (int node = 0; node < nodes; node++) {
+				double p = current[node];
+				if (p == 0) continue;
+				for (int edge = start[node]; edge < start[node + 1]; edge++)
+					next[target[edge]] += p * weight[edge];
+			}
+		}
+		probabilities = settle(view, next, false);
+	}
+
+	/**
+	 * @param node the node
+	 * @return the probability of MrX being at the node
+	 */
+	public double probability(int node) {
+		return node < 0 || node >= nodes ? 0 : probabilities[node];
+	}
+
+	/**
+	 * @return the probability of every node, indexed by node; never null
+	 */
+	public double[] toArray() {
+		return probabilities.clone();
+	}
+
+	/**
+	 * @return the node MrX is most likely at, the lowest of equally likely
+	 *         nodes
+	 */
+	public int mostLikely() {
+		double[] probabilities = this.probabilities;
+		int best = 0;
+		for (int node = 1; node < nodes; node++)
+			if (probabilities[node] > probabilities[best]) best = node;
+		return best;
+	}
+
+	/**
+	 * Draws a node MrX may be at, each with its probability
+	 *
+	 * @param random the source of randomness; not null
+	 * @return the node
+	 */
+	public int sample(Random random) {
+		double[] probabilities = this.probabilities;
+		double remaining = random.nextDouble();
+		int last = 0;
+		for (int node = 0; node < nodes; node++) {
+			if (probabilities[node] == 0) continue;
+			remaining -= probabilities[node];
+			last = node;
+			if (remaining < 0) return node;
+		}
+		// rounding left a little mass over
+		return last;
+	}
+
+	@Override
+	public String toString() {
+		return "MrXDistribution{mostLikely=" + mostLikely() + '}';
+	}
+
+}
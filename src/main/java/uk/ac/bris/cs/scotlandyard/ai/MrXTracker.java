@@ -0,0 +1,175 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+
+import java.util.BitSet;
+import java.util.Optional;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.TicketReach;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Tracks every node MrX may be at, as far as the detectives can tell. The
+ * tracker is a {@link Spectator}: each ticket MrX uses moves the candidates
+ * along the edges of that ticket, a reveal round replaces them with the
+ * revealed location, and nodes held by detectives are removed.
+ * <br>
+ * The {@link AIPool} and the headless runner register one tracker per group
+ * of AIs before the first move, available from
+ * {@link #shared(ResourceProvider)}, so detectives do not each walk the graph
+ * again every turn. Queries are constant time, never block and may be made
+ * from any thread; they see the candidates after the last move notified.
+ */
+public final class MrXTracker implements Spectator {
+
+	private final int nodes;
+	private final int words;
+	private final TicketReach reach;
+	// replaced, never modified, on every update
+	private volatile Candidates candidates;
+
+	// an immutable set of candidates
+	private static final class Candidates {
+
+		final long[] bits;
+		final int count;
+
+		Candidates(long[] bits) {
+			this.bits = bits;
+			int count = 0;
+			for (long word : bits)
+				count += Long.bitCount(word);
+			this.count = count;
+		}
+
+	}
+
+	/**
+	 * Creates a tracker for a game that has not started yet. MrX may start
+	 * anywhere detectives are not, or at his last known location if he has
+	 * already shown himself.
+	 *
+	 * @param view the view of the game; not null
+	 */
+	public MrXTracker(ScotlandYardView view) {
+		requireNonNull(view);
+		AdjacencyIndex<Transport> index = ScotlandYardGraphReader.indexOf(view.getGraph());
+		this.reach = TicketReach.of(index);
+		this.nodes = reach.nodes();
+		this.words = reach.words();
+		long[] all = new long[words];
+		for (int node = 0; node < nodes; node++)
+			if (index.containsNode(node)) set(all, 0, node);
+		int last = view.getPlayerLocation(BLACK).orElse(0);
+		if (last > 0 && last < nodes && index.containsNode(last)) {
+			long[] revealed = new long[words];
+			set(revealed, 0, last);
+			all = revealed;
+		}
+		this.candidates = new Candidates(withoutDetectives(view, all));
+	}
+
+	/**
+	 * Retrieves the tracker registered for the group of AIs of the given
+	 * provider
+	 *
+	 * @param provider the provider given to
+	 *        {@link PlayerFactory#ready(Visualiser, ResourceProvider)}; not null
+	 * @return the tracker, or empty if the game has none; never null
+	 */
+	public static Optional<MrXTracker> shared(ResourceProvider provider) {
+		return provider.registered(MrXTracker.class);
+	}
+
+	private static void set(long[] bits, int offset, int node) {
+		bits[offset + (node >>> 6)] |= 1L << node;
+	}
+
+	private long[] withoutDetectives(ScotlandYardView view, long[] bits) {
+		for (Colour colour : view.getPlayers()) {
+			if (colour.isMrX()) continue;
+			int location = view.getPlayerLocation(colour).orElse(-1);
+			if (location >= 0 && location < nodes)
+				bits[location >>> 6] &= ~(1L << location);
+		}
+		return bits;
+	}
+
+	@Override
+	public void onMoveMade(ScotlandYardView view, Move move) {
+		// double moves are followed by their two ticket moves
+		if (!(move instanceof TicketMove)) return;
+		TicketMove ticketMove = (TicketMove) move;
+		long[] bits = candidates.bits;
+		long[] next = new long[words];
+		if (ticketMove.colour().isDetective()) {
+			System.arraycopy(bits, 0, next, 0, words);
+			int location = ticketMove.destination();
+			if (location >= 0 && location < nodes)
+				next[location >>> 6] &= ~(1L << location);
+		} else if (view.getRounds().get(view.getCurrentRound() - 1)) {
+			// the round has already been counted when MrX moves are notified
+			set(next, 0, ticketMove.destination());
+		} else {
+			Ticket ticket = ticketMove.ticket();
+			if (!TicketReach.TRAVEL.contains(ticket)) return;
+			for (int word = 0; word < words; word++)
+				for (long w = bits[word]; w != 0; w &= w - 1)
+					reach.or(ticket, (word << 6) + Long.numberOfTrailingZeros(w), next);
+			withoutDetectives(view, next);
+		}
+		candidates = new Candidates(next);
+	}
+
+	/**
+	 * @return the number of nodes MrX may be at
+	 */
+	public int count() {
+		return candidates.count;
+	}
+
+	/**
+	 * @param node the node
+	 * @return true if MrX may be at the node
+	 */
+	public boolean contains(int node) {
+		if (node < 0 || node >= nodes) return false;
+		return (candidates.bits[node >>> 6] & 1L << node) != 0;
+	}
+
+	/**
+	 * @return the nodes MrX may be at in ascending order; never null
+	 */
+	public int[] locations() {
+		Candidates candidates = this.candidates;
+		long[] bits = candidates.bits;
+		int[] locations = new int[candidates.count];
+		int i = 0;
+		for (int word = 0; word < bits.length; word++)
+			for (long w = bits[word]; w != 0; w &= w - 1)
+				locations[i++] = (word << 6) + Long.numberOfTrailingZeros(w);
+		return locations;
+	}
+
+	/**
+	 * @return the nodes MrX may be at as a new bitset; never null
+	 */
+	public BitSet toBitSet() {
+		return BitSet.valueOf(candidates.bits);
+	}
+
+	@Override
+	public String toString() {
+		return "MrXTracker{count=" + count() + '}';
+	}
+
+}
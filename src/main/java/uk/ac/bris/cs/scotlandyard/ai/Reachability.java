@@ -0,0 +1,208 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.TicketReach;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Answers where a player can get to in a number of moves with the tickets
+ * they hold: every move uses a ticket of its transport, or a SECRET ticket
+ * for any edge including ferries. Unlike a {@link
+ * uk.ac.bris.cs.gamekit.graph.DistanceTable} this knows that a detective
+ * without UNDERGROUND tickets cannot take the tube, or can only take it
+ * once more.
+ * <br>
+ * Moves are single tickets; DOUBLE tickets are not spent, a double move
+ * counts as two moves. Nodes held by detectives other than the player are
+ * blocked for the whole search, as they are for the next move.
+ * <br>
+ * The search runs one move at a time over sets of (node, tickets left)
+ * states: every distinct vector of tickets left has one bitset of nodes, so
+ * paths spending the same tickets merge however they got there. Results are
+ * memoised, so asking for more moves extends the last search. Instances are
+ * not thread safe.
+ */
+public final class Reachability {
+
+	// tickets that move a player, in the order of their ticket vector fields
+	private static final List<Ticket> TRAVEL = TicketReach.TRAVEL;
+	// bits per ticket count in a ticket vector
+	private static final int FIELD = 8;
+	private static final int MAX_COUNT = (1 << FIELD) - 1;
+
+	private final int nodes;
+	private final int words;
+	private final TicketReach reach;
+	private final long[] blocked;
+	// nodes reachable in exactly i moves, per ticket vector
+	private final List<Map<Integer, long[]>> frontiers = new ArrayList<>();
+	// nodes reachable in exactly i moves, and within i moves
+	private final List<long[]> exactly = new ArrayList<>();
+	private final List<long[]> within = new ArrayList<>();
+
+	/**
+	 * @param graph the map; not null
+	 * @param location where the player is
+	 * @param tickets the tickets the player holds, missing tickets count as
+	 *        zero; not null
+	 * @param blocked nodes the player may not move to; not null
+	 */
+	public Reachability(Graph<Integer, Transport> graph, int location,
+			Map<Ticket, Integer> tickets, Collection<Integer> blocked) {
+		requireNonNull(tickets);
+		requireNonNull(blocked);
+		AdjacencyIndex<Transport> index = ScotlandYardGraphReader.indexOf(graph);
+		if (!index.containsNode(location))
+			throw new IllegalArgumentException("Location " + location + " is not on the map");
+		this.reach = TicketReach.of(index);
+		this.nodes = reach.nodes();
+		this.words = reach.words();
+		this.blocked = new long[words];
+		for (int node : blocked)
+			if (node >= 0 && node < nodes) this.blocked[node >>> 6] |= 1L << node;
+		int vector = 0;
+		for (int i = 0; i < TRAVEL.size(); i++) {
+			int count = tickets.getOrDefault(TRAVEL.get(i), 0);
+			if (count < 0)
+				throw new IllegalArgumentException(count + " " + TRAVEL.get(i) + " tickets");
+			vector |= Math.min(count, MAX_COUNT) << i * FIELD;
+		}
+		long[] start = new long[words];
+		start[location >>> 6] |= 1L << location;
+		Map<Integer, long[]> frontier = new HashMap<>();
+		frontier.put(vector, start);
+		frontiers.add(frontier);
+		exactly.add(start);
+		within.add(start.clone());
+	}
+
+	/**
+	 * Creates a search for a player of a game as it is now, with the other
+	 * detectives blocking their nodes
+	 *
+	 * @param view the view of the game; not null
+	 * @param colour the player; not null
+	 * @param location where the player is, needed as MrX may be hidden
+	 * @return the search; never null
+	 */
+	public static Reachability of(ScotlandYardView view, Colour colour, int location) {
+		requireNonNull(colour);
+		Map<Ticket, Integer> tickets = new HashMap<>();
+		for (Ticket ticket : TRAVEL)
+			tickets.put(ticket, view.getPlayerTickets(colour, ticket)
+					.orElseThrow(() -> new IllegalArgumentException(colour + " is not playing")));
+		List<Integer> blocked = new ArrayList<>();
+		for (Colour other : view.getPlayers())
+			if (other.isDetective() && other != colour)
+				view.getPlayerLocation(other).ifPresent(blocked::add);
+		return new Reachability(view.getGraph(), location, tickets, blocked);
+	}
+
+	// searches one more move from the last frontier
+	private void step() {
+		int moves = frontiers.size();
+		Map<Integer, long[]> next = new HashMap<>();
+		for (Map.Entry<Integer, long[]> state : frontiers.get(moves - 1).entrySet()) {
+			int vector = state.getKey();
+			long[] from = state.getValue();
+			for (int i = 0; i < TRAVEL.size(); i++) {
+				int count = vector >>> i * FIELD & MAX_COUNT;
+				if (count == 0) continue;
+				Ticket ticket = TRAVEL.get(i);
+				long[] to = next.computeIfAbsent(vector - (1 << i * FIELD), v -> new long[words]);
+				for (int word = 0; word < words; word++)
+					for (long w = from[word]; w != 0; w &= w - 1)
+						reach.or(ticket, (word << 6) + Long.numberOfTrailingZeros(w), to);
+			}
+		}
+		long[] any = new long[words];
+		long[] reached = within.get(moves - 1).clone();
+		next.values().removeIf(to -> {
+			boolean empty = true;
+			for (int word = 0; word < words; word++) {
+				to[word] &= ~blocked[word];
+				any[word] |= to[word];
+				empty &= to[word] == 0;
+			}
+			return empty;
+		});
+		for (int word = 0; word < words; word++)
+			reached[word] |= any[word];
+		frontiers.add(next);
+		exactly.add(any);
+		within.add(reached);
+	}
+
+	private long[] search(List<long[]> results, int moves) {
+		if (moves < 0) throw new IllegalArgumentException(moves + " moves");
+		while (results.size() <= moves) {
+			// nothing left to reach, every later frontier is empty too
+			if (frontiers.get(frontiers.size() - 1).isEmpty()) return results == within
+					? within.get(within.size() - 1) : new long[words];
+			step();
+		}
+		return results.get(moves);
+	}
+
+	/**
+	 * @param moves the number of moves, not negative
+	 * @return the nodes the player can be at after exactly the given number of
+	 *         moves, as a new bitset; never null
+	 */
+	public BitSet exactly(int moves) {
+		return BitSet.valueOf(search(exactly, moves));
+	}
+
+	/**
+	 * @param moves the number of moves, not negative
+	 * @return the nodes the player can be at after at most the given number of
+	 *         moves, including where they are, as a new bitset; never null
+	 */
+	public BitSet within(int moves) {
+		return BitSet.valueOf(search(within, moves));
+	}
+
+	/**
+	 * @param node the node
+	 * @param moves the number of moves, not negative
+	 * @return true if the player can be at the node after at most the given
+	 *         number of moves
+	 */
+	public boolean canReach(int node, int moves) {
+		if (node < 0 || node >= nodes) return false;
+		return (search(within, moves)[node >>> 6] & 1L << node) != 0;
+	}
+
+	/**
+	 * @param node the node
+	 * @param limit the most moves to search
+	 * @return the fewest moves the player needs to be at the node, or -1 if
+	 *         they cannot be there within the limit
+	 */
+	public int movesTo(int node, int limit) {
+		if (node < 0 || node >= nodes) return -1;
+		for (int moves = 0; moves <= limit; moves++)
+			if ((search(exactly, moves)[node >>> 6] & 1L << node) != 0) return moves;
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return "Reachability{searched=" + (frontiers.size() - 1) + '}';
+	}
+
+}
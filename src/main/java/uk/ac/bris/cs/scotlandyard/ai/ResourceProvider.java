@@ -1,5 +1,8 @@
 package uk.ac.bris.cs.scotlandyard.ai;
 
+import java.util.Optional;
+import java.util.function.Supplier;
+
 import javafx.geometry.Point2D;
 import javafx.scene.image.Image;
 import uk.ac.bris.cs.gamekit.graph.Graph;
@@ -45,4 +48,37 @@ public interface ResourceProvider {
 	 */
 	Point2D coordinateAtNode(int node);
 
+	/**
+	 * Retrieves an object shared by all AIs of the same {@link AIPool} group,
+	 * e.g. all detectives, creating it on first use. One object is kept per
+	 * type until the group is terminated. Shared objects may be used from
+	 * several threads at once.<br>
+	 *
+	 * Defaults to creating a new object on every call, for providers that are
+	 * not scoped to a group
+	 *
+	 * @param type the type of the shared object; not null
+	 * @param factory creates the object if it does not exist yet; not null
+	 * @param <T> the type of the shared object
+	 * @return the shared object; never null
+	 */
+	default <T> T shared(Class<T> type, Supplier<? extends T> factory) {
+		return type.cast(factory.get());
+	}
+
+	/**
+	 * Retrieves an object shared by all AIs of the same {@link AIPool} group
+	 * without creating it, e.g. the {@link MrXTracker} registered before the
+	 * game starts.<br>
+	 *
+	 * Defaults to empty, for providers that are not scoped to a group
+	 *
+	 * @param type the type of the shared object; not null
+	 * @param <T> the type of the shared object
+	 * @return the shared object, or empty if there is none; never null
+	 */
+	default <T> Optional<T> registered(Class<T> type) {
+		return Optional.empty();
+	}
+
 }
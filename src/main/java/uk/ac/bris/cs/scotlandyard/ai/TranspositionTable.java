@@ -0,0 +1,203 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.bris.cs.scotlandyard.model.PackedMove;
+import uk.ac.bris.cs.scotlandyard.model.PositionHash;
+
+/**
+ * A fixed size transposition table for game tree search, keyed by
+ * {@link PositionHash} values. Entries remember the searched depth, the score,
+ * whether the score is exact or a bound, and the best {@link PackedMove}.
+ * <br>
+ * The table is lock free and may be shared by AIs searching on different
+ * threads, e.g. through {@link #shared(ResourceProvider)} by all players of an
+ * {@link AIPool} group. Every entry is stored as three {@code long}s and the
+ * first is XORed with the other two, so an entry torn by a concurrent write
+ * simply fails to match its key and reads as a miss.
+ * <br>
+ * Each position maps to a single slot. A store replaces the slot when it is
+ * for the same position, from a search started before the last
+ * {@link #newSearch()}, or no deeper than the new entry.
+ */
+public final class TranspositionTable {
+
+	/**
+	 * The score is exact
+	 */
+	public static final int EXACT = 0;
+
+	/**
+	 * The score is a lower bound, the search failed high
+	 */
+	public static final int LOWER = 1;
+
+	/**
+	 * The score is an upper bound, the search failed low
+	 */
+	public static final int UPPER = 2;
+
+	/**
+	 * Number of entries of a table created by {@link #shared(ResourceProvider)}
+	 */
+	public static final int DEFAULT_ENTRIES = 1 << 20;
+
+	// info layout: used(1) | age(8) | bound(2) | depth(16) | unused(5) | score(32)
+	private static final long USED = 1L << 63;
+	private static final int AGE = 55;
+	private static final int BOUND = 53;
+	private static final int DEPTH = 37;
+
+	private final long[] slots;
+	private final int mask;
+	private final AtomicInteger age = new AtomicInteger();
+
+	/**
+	 * @param entries the minimum number of entries, rounded up to a power of two
+	 */
+	public TranspositionTable(int entries) {
+		if (entries <= 0 || entries > 1 << 26)
+			throw new IllegalArgumentException("Entries " + entries + " out of range");
+		int size = Integer.highestOneBit(entries);
+		if (size < entries) size <<= 1;
+		this.slots = new long[size * 3];
+		this.mask = size - 1;
+	}
+
+	/**
+	 * Retrieves the table shared by all AIs in the same group as the given
+	 * provider, creating it with {@link #DEFAULT_ENTRIES} on first use
+	 *
+	 * @param provider the provider given to
+	 *        {@link PlayerFactory#ready(Visualiser, ResourceProvider)}; not null
+	 * @return the table; never null
+	 */
+	public static TranspositionTable shared(ResourceProvider provider) {
+		return provider.shared(TranspositionTable.class,
+				() -> new TranspositionTable(DEFAULT_ENTRIES));
+	}
+
+	/**
+	 * @return the number of entries
+	 */
+	public int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Marks the start of a new search, entries of earlier searches become
+	 * replaceable regardless of their depth
+	 */
+	public void newSearch() {
+		age.incrementAndGet();
+	}
+
+	/**
+	 * Removes all entries, must not be called while other threads use the
+	 * table
+	 */
+	public void clear() {
+		Arrays.fill(slots, 0);
+	}
+
+	/**
+	 * Stores the result of searching a position
+	 *
+	 * @param hash the position hash
+	 * @param depth the searched depth, between 0 and 65535
+	 * @param score the score
+	 * @param bound one of {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+	 * @param move the best {@link PackedMove} found, or -1 if none
+	 */
+	public void store(long hash, int depth, int score, int bound, long move) {
+		if (depth < 0 || depth > 0xFFFF)
+			throw new IllegalArgumentException("Depth " + depth + " out of range");
+		if (bound < EXACT || bound > UPPER)
+			throw new IllegalArgumentException("Unknown bound " + bound);
+		int slot = index(hash);
+		long storedInfo = slots[slot + 2];
+		long storedKey = slots[slot] ^ slots[slot + 1] ^ storedInfo;
+		int currentAge = age.get() & 0xFF;
+		if ((storedInfo & USED) != 0
+				&& storedKey != hash
+				&& (int) (storedInfo >>> AGE & 0xFF) == currentAge
+				&& (int) (storedInfo >>> DEPTH & 0xFFFF) > depth)
+			return;
+		long info = USED
+				| (long) currentAge << AGE
+				| (long) bound << BOUND
+				| (long) depth << DEPTH
+				| (score & 0xFFFFFFFFL);
+		slots[slot] = hash ^ move ^ info;
+		slots[slot + 1] = move;
+		slots[slot + 2] = info;
+	}
+
+	/**
+	 * Looks up a position
+	 *
+	 * @param hash the position hash
+	 * @param hit receives the entry if found; not null
+	 * @return true if the position was found and hit was filled in
+	 */
+	public boolean probe(long hash, Hit hit) {
+		int slot = index(hash);
+		long check = slots[slot];
+		long move = slots[slot + 1];
+		long info = slots[slot + 2];
+		if ((info & USED) == 0 || (check ^ move ^ info) != hash) return false;
+		hit.move = move;
+		hit.score = (int) info;
+		hit.depth = (int) (info >>> DEPTH & 0xFFFF);
+		hit.bound = (int) (info >>> BOUND & 0b11);
+		return true;
+	}
+
+	// first of the three longs of the slot for the hash
+	private int index(long hash) {
+		return (((int) (hash >>> 32) ^ (int) hash) & mask) * 3;
+	}
+
+	/**
+	 * A reusable receiver for {@link #probe(long, Hit)}, avoiding allocation in
+	 * the search. Not thread safe.
+	 */
+	public static final class Hit {
+
+		private long move;
+		private int score;
+		private int depth;
+		private int bound;
+
+		/**
+		 * @return the best {@link PackedMove}, or -1 if none was stored
+		 */
+		public long move() {
+			return move;
+		}
+
+		/**
+		 * @return the stored score
+		 */
+		public int score() {
+			return score;
+		}
+
+		/**
+		 * @return the depth the score was searched to
+		 */
+		public int depth() {
+			return depth;
+		}
+
+		/**
+		 * @return one of {@link #EXACT}, {@link #LOWER} or {@link #UPPER}
+		 */
+		public int bound() {
+			return bound;
+		}
+
+	}
+
+}
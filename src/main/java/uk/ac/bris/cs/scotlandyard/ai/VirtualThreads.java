@@ -0,0 +1,63 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors that start a new thread for every task, so tasks that block never
+ * hold up each other. On a JVM with virtual threads (Java 21 and later) the
+ * threads are virtual and cheap enough for thousands of concurrent tasks;
+ * earlier JVMs fall back to daemon platform threads, which still never starve
+ * but cost a full thread each.
+ * <br>
+ * The project targets Java 11, so virtual threads are looked up reflectively
+ * at runtime.
+ */
+public final class VirtualThreads {
+
+	private static final Method NEW_EXECUTOR = lookup();
+	private static final AtomicInteger THREADS = new AtomicInteger();
+
+	private VirtualThreads() {}
+
+	private static Method lookup() {
+		try {
+			return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * @return true if {@link #newExecutor()} runs tasks on virtual threads
+	 */
+	public static boolean available() {
+		return NEW_EXECUTOR != null;
+	}
+
+	/**
+	 * Creates an executor that runs every task on a new thread. Shutting the
+	 * executor down with {@link ExecutorService#shutdownNow()} interrupts all
+	 * running tasks, so an executor can scope the tasks of one game.
+	 *
+	 * @return the executor; never null
+	 */
+	public static ExecutorService newExecutor() {
+		if (NEW_EXECUTOR != null) {
+			try {
+				return (ExecutorService) NEW_EXECUTOR.invoke(null);
+			} catch (IllegalAccessException | InvocationTargetException e) {
+				throw new IllegalStateException("Unable to create virtual thread executor", e);
+			}
+		}
+		return Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "ai-" + THREADS.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+}
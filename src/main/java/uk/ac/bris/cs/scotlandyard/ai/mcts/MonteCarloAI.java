@@ -0,0 +1,116 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.bris.cs.scotlandyard.ai.AnytimePlayer;
+import uk.ac.bris.cs.scotlandyard.ai.Deadline;
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI;
+import uk.ac.bris.cs.scotlandyard.ai.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.ai.ResourceProvider;
+import uk.ac.bris.cs.scotlandyard.ai.Visualiser;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.SearchBoard;
+import uk.ac.bris.cs.scotlandyard.model.Spectator;
+
+/**
+ * A reference AI for both MrX and the detectives that searches with Monte
+ * Carlo tree search over {@link SearchBoard}s, a fast copy of the rules of
+ * the model. The search runs on several cores at once and is an
+ * {@link AnytimePlayer}: it uses the whole time per move of the game and
+ * plays its best move so far when the time runs out. Without a
+ * {@link Deadline} every worker stops after a fixed number of iterations, so
+ * games seeded by a {@code BatchRunner} play out the same every time.
+ */
+@ManagedAI("Monte Carlo")
+public class MonteCarloAI implements PlayerFactory {
+
+	/**
+	 * Iterations per worker and move of an AI created with the no-arg
+	 * constructor, when there is no time limit
+	 */
+	public static final int DEFAULT_ITERATIONS = 2000;
+
+	// tree nodes per worker and move; a few hundred bytes each, more for MrX
+	// whose double moves make long move arrays
+	private static final int MAX_NODES = 50_000;
+
+	private static final AtomicInteger WORKER_THREADS = new AtomicInteger();
+	// shared by every game in the JVM so concurrent games split the cores
+	private static final ExecutorService WORKERS = Executors.newFixedThreadPool(
+			Runtime.getRuntime().availableProcessors(), runnable -> {
+				Thread thread = new Thread(runnable, "mcts-" + WORKER_THREADS.incrementAndGet());
+				thread.setDaemon(true);
+				return thread;
+			});
+
+	private final int threads;
+	private final int iterations;
+	// the shared tracker of the game, or our own if it has none
+	private MrXTracker tracker;
+	// seeds the players, the one registered for the game if there is one
+	private Random random = new Random();
+
+	/**
+	 * Creates an AI that searches on every core, see
+	 * {@link #DEFAULT_ITERATIONS}
+	 */
+	public MonteCarloAI() {
+		this(Runtime.getRuntime().availableProcessors(), DEFAULT_ITERATIONS);
+	}
+
+	/**
+	 * @param threads the number of trees searched in parallel per move
+	 * @param iterations the iterations per tree and move when there is no
+	 *        time limit
+	 */
+	public MonteCarloAI(int threads, int iterations) {
+		if (threads < 1) throw new IllegalArgumentException(threads + " threads");
+		if (iterations < 1) throw new IllegalArgumentException(iterations + " iterations");
+		this.threads = threads;
+		this.iterations = iterations;
+	}
+
+	@Override
+	public List<Spectator> createSpectators(ScotlandYardView view) {
+		MrXTracker own = new MrXTracker(view);
+		tracker = own;
+		// only kept up to date until a shared tracker replaces it
+		return List.of(new Spectator() {
+			@Override
+			public void onMoveMade(ScotlandYardView view, Move move) {
+				if (tracker == own) own.onMoveMade(view, move);
+			}
+		});
+	}
+
+	@Override
+	public void ready(Visualiser visualiser, ResourceProvider provider) {
+		MrXTracker.shared(provider).ifPresent(shared -> tracker = shared);
+		provider.registered(Random.class).ifPresent(registered -> random = registered);
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @throws IllegalStateException if a detective is created before the AI
+	 *         has a {@link MrXTracker}, from
+	 *         {@link #createSpectators(ScotlandYardView)} or a shared one
+	 */
+	@Override
+	public Player createPlayer(Colour colour) {
+		if (colour.isDetective() && tracker == null)
+			throw new IllegalStateException(
+					"No MrXTracker for " + colour + ", createSpectators was not called");
+		return new MonteCarloPlayer(WORKERS, threads, iterations, MAX_NODES,
+				random.nextLong(), tracker);
+	}
+
+}
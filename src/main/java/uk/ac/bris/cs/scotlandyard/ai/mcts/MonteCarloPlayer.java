@@ -0,0 +1,151 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import uk.ac.bris.cs.scotlandyard.ai.AnytimePlayer;
+import uk.ac.bris.cs.scotlandyard.ai.Deadline;
+import uk.ac.bris.cs.scotlandyard.ai.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.model.GameState;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.MoveSet;
+import uk.ac.bris.cs.scotlandyard.model.PackedMove;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * Chooses moves with root parallel Monte Carlo tree search: every worker grows
+ * its own trees and the visits of the root moves are summed. Detectives do
+ * not know where MrX is, so each of their trees starts from a different guess
+ * taken from the {@link MrXTracker} of the game.
+ */
+final class MonteCarloPlayer implements AnytimePlayer {
+
+	// trees per worker when searching for detectives
+	private static final int GUESSES = 4;
+	// how often the best move so far is offered
+	private static final long REPORT_MILLIS = 50;
+	// the share of the remaining time kept to collect the result
+	private static final int MARGIN_DIVISOR = 20;
+
+	private final ExecutorService workers;
+	private final int threads;
+	private final int iterations;
+	private final int nodes;
+	private final SplittableRandom seeds;
+	private final MrXTracker tracker;
+	// the last position searched from, its rules are reused every move
+	private volatile GameState last;
+
+	// workers stop after their iterations without a deadline and when it
+	// passes with one; nodes bound the trees of a worker per move, the
+	// tracker is only used, and so may only be null, for MrX
+	MonteCarloPlayer(ExecutorService workers, int threads, int iterations,
+			int nodes, long seed, MrXTracker tracker) {
+		this.workers = workers;
+		this.tracker = tracker;
+		this.threads = threads;
+		this.iterations = iterations;
+		this.nodes = nodes;
+		this.seeds = new SplittableRandom(seed);
+	}
+
+	@Override
+	public void search(ScotlandYardView view, int location, Set<Move> moves,
+			Candidates candidates) {
+		Deadline deadline = Deadline.current();
+		long stopAt = deadline.limited()
+				? System.nanoTime() + deadline.remainingNanos()
+						- deadline.remainingNanos() / MARGIN_DIVISOR
+				: Long.MAX_VALUE;
+		int limit = deadline.limited() ? Integer.MAX_VALUE : iterations;
+		boolean mrX = view.getCurrentPlayer().isMrX();
+		int[] guesses = mrX ? new int[] { location } : guesses();
+		GameState last = this.last;
+		GameState state = last == null ? GameState.of(view, guesses[0])
+				: last.withView(view, guesses[0]);
+		this.last = state;
+		long[] rootMoves = MoveSet.copyOf(moves).toPackedArray();
+		Arrays.sort(rootMoves);
+
+		List<List<SearchTree>> trees = new ArrayList<>();
+		List<Future<?>> running = new ArrayList<>();
+		SplittableRandom random;
+		synchronized (seeds) {
+			random = seeds.split();
+		}
+		for (int worker = 0; worker < threads; worker++) {
+			List<SearchTree> owned = new ArrayList<>();
+			int count = mrX ? 1 : GUESSES;
+			for (int i = 0; i < count; i++) {
+				int guess = guesses[random.nextInt(guesses.length)];
+				owned.add(new SearchTree(state.withMrXAt(guess), random.split(), nodes / count));
+			}
+			trees.add(owned);
+			running.add(workers.submit(() -> grow(owned, limit, stopAt)));
+		}
+		try {
+			for (Future<?> future : running) {
+				while (!future.isDone()) {
+					try {
+						future.get(REPORT_MILLIS, MILLISECONDS);
+					} catch (TimeoutException e) {
+						offerBest(trees, rootMoves, candidates);
+					}
+				}
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("Search failed", e.getCause());
+		} finally {
+			running.forEach(future -> future.cancel(true));
+		}
+		offerBest(trees, rootMoves, candidates);
+	}
+
+	private static void grow(List<SearchTree> trees, int iterations, long stopAt) {
+		for (int i = 0; i < iterations; i++) {
+			if (System.nanoTime() - stopAt >= 0 || Thread.currentThread().isInterrupted()) return;
+			trees.get(i % trees.size()).iterate();
+		}
+	}
+
+	// offers the most visited root move, scored by its win rate
+	private static void offerBest(List<List<SearchTree>> trees, long[] rootMoves,
+			Candidates candidates) {
+		long[] visits = new long[rootMoves.length];
+		long[] wins = new long[rootMoves.length];
+		for (List<SearchTree> owned : trees)
+			for (SearchTree tree : owned)
+				tree.addRootStatistics(rootMoves, visits, wins);
+		int best = 0;
+		for (int i = 1; i < rootMoves.length; i++)
+			if (visits[i] > visits[best]) best = i;
+		if (visits[best] == 0) return;
+		candidates.offer(PackedMove.decode(rootMoves[best]), (double) wins[best] / visits[best]);
+	}
+
+	/**
+	 * Where MrX may be, according to the tracker of the factory
+	 *
+	 * @return the possible locations, never empty
+	 * @throws IllegalStateException if the tracker has lost MrX
+	 */
+	int[] guesses() {
+		int[] locations = tracker.locations();
+		if (locations.length == 0)
+			throw new IllegalStateException("No location left for MrX in " + tracker);
+		return locations;
+	}
+
+}
@@ -0,0 +1,202 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import uk.ac.bris.cs.scotlandyard.model.GameState;
+import uk.ac.bris.cs.scotlandyard.model.MoveSet;
+import uk.ac.bris.cs.scotlandyard.model.PackedMove;
+import uk.ac.bris.cs.scotlandyard.model.SearchBoard;
+
+/**
+ * A UCT search tree grown from a single position. Detectives are treated as
+ * one side, so every node is scored for either MrX or the detectives. Once
+ * the tree holds its budget of nodes it stops growing and iterations play out
+ * from the leaves they reach, so long searches use bounded memory. Trees
+ * are grown by one thread; {@link #addRootStatistics(long[], long[], long[])}
+ * may be called from any thread and sees a recent, possibly stale, picture.
+ */
+final class SearchTree {
+
+	// exploration constant of UCT, tuned for win/loss rewards
+	private static final double EXPLORATION = 0.7;
+
+	private final SearchBoard board;
+	private final SplittableRandom random;
+	private final Node root;
+	// nodes below the root that may still be created
+	private int budget;
+	// visits and wins of the root children, readable while the tree grows
+	private final int[] rootVisits;
+	private final int[] rootWins;
+	private Node[] path = new Node[64];
+
+	/**
+	 * @param state the position to search from; not null
+	 * @param random the source of the random order of moves and play outs
+	 * @param budget the nodes the tree may hold besides the root, the
+	 *        children of the root are created even beyond it
+	 */
+	SearchTree(GameState state, SplittableRandom random, int budget) {
+		this.board = new SearchBoard(state);
+		this.random = random;
+		this.budget = budget;
+		this.root = new Node(board, random, false);
+		this.rootVisits = new int[root.moves.length];
+		this.rootWins = new int[root.moves.length];
+	}
+
+	private static final class Node {
+
+		// valid moves in random order, children are expanded in this order
+		final long[] moves;
+		final Node[] children;
+		// whether MrX made the move into this node
+		final boolean mrXMoved;
+		// for terminal nodes, whether MrX has won
+		final boolean mrXWon;
+		int expanded;
+		int visits;
+		int wins;
+
+		Node(SearchBoard board, SplittableRandom random, boolean mrXMoved) {
+			this.mrXMoved = mrXMoved;
+			if (board.isGameOver()) {
+				this.moves = new long[0];
+				this.mrXWon = board.getWinningPlayers().contains(BLACK);
+			} else {
+				this.moves = board.validMoves().toPackedArray();
+				this.mrXWon = false;
+				for (int i = moves.length - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1);
+					long move = moves[i];
+					moves[i] = moves[j];
+					moves[j] = move;
+				}
+			}
+			this.children = new Node[moves.length];
+		}
+
+		boolean terminal() {
+			return moves.length == 0;
+		}
+
+		// the index of the child with the highest upper confidence bound
+		int select() {
+			double log = Math.log(visits);
+			int best = 0;
+			double bestScore = Double.NEGATIVE_INFINITY;
+			for (int i = 0; i < children.length; i++) {
+				Node child = children[i];
+				double score = (double) child.wins / child.visits
+						+ EXPLORATION * Math.sqrt(log / child.visits);
+				if (score > bestScore) {
+					best = i;
+					bestScore = score;
+				}
+			}
+			return best;
+		}
+
+	}
+
+	/**
+	 * Runs one select, expand, play out and back up iteration
+	 */
+	void iterate() {
+		if (root.terminal()) return;
+		Node node = root;
+		int depth = 0;
+		int child = -1;
+		while (!node.terminal() && node.expanded == node.moves.length) {
+			int index = node.select();
+			if (node == root) child = index;
+			board.make(node.moves[index]);
+			node = node.children[index];
+			path = push(path, depth++, node);
+		}
+		boolean mrXWon;
+		if (node.terminal()) {
+			mrXWon = node.mrXWon;
+		} else if (node != root && budget <= 0) {
+			mrXWon = playOut();
+		} else {
+			budget--;
+			int index = node.expanded++;
+			boolean mrXMoving = board.getCurrentPlayer().isMrX();
+			board.make(node.moves[index]);
+			Node expanded = new Node(board, random, mrXMoving);
+			node.children[index] = expanded;
+			if (node == root) child = index;
+			path = push(path, depth++, expanded);
+			mrXWon = expanded.terminal() ? expanded.mrXWon : playOut();
+		}
+		root.visits++;
+		for (int i = depth - 1; i >= 0; i--) {
+			Node visited = path[i];
+			visited.visits++;
+			if (visited.mrXMoved == mrXWon) visited.wins++;
+			board.unmake();
+		}
+		rootVisits[child]++;
+		if (path[0].mrXMoved == mrXWon) rootWins[child]++;
+	}
+
+	// plays random moves to the end of the game, detectives capture MrX
+	// whenever they can
+	private boolean playOut() {
+		int made = 0;
+		while (!board.isGameOver()) {
+			MoveSet moves = board.validMoves();
+			long move = moves.packed(random.nextInt(moves.size()));
+			if (!board.getCurrentPlayer().isMrX()) {
+				int mrX = board.location(BLACK);
+				for (int i = 0; i < moves.size(); i++) {
+					if (PackedMove.kind(moves.packed(i)) == PackedMove.TICKET
+							&& PackedMove.destination(moves.packed(i)) == mrX) {
+						move = moves.packed(i);
+						break;
+					}
+				}
+			}
+			board.make(move);
+			made++;
+		}
+		boolean mrXWon = board.getWinningPlayers().contains(BLACK);
+		for (int i = 0; i < made; i++)
+			board.unmake();
+		return mrXWon;
+	}
+
+	private static Node[] push(Node[] path, int depth, Node node) {
+		if (depth == path.length) path = Arrays.copyOf(path, path.length * 2);
+		path[depth] = node;
+		return path;
+	}
+
+	/**
+	 * Adds the visits and wins of the root moves to totals
+	 *
+	 * @param moves the root moves, sorted
+	 * @param visits the visits of each root move
+	 * @param wins the wins of each root move
+	 */
+	void addRootStatistics(long[] moves, long[] visits, long[] wins) {
+		for (int i = 0; i < root.moves.length; i++) {
+			int index = Arrays.binarySearch(moves, root.moves[i]);
+			if (index < 0) continue;
+			visits[index] += rootVisits[i];
+			wins[index] += rootWins[i];
+		}
+	}
+
+	/**
+	 * @return the number of iterations run
+	 */
+	int iterations() {
+		return root.visits;
+	}
+
+}
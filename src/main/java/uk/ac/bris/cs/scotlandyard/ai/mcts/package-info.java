@@ -0,0 +1,5 @@
+/**
+ * A Monte Carlo tree search AI, the reference AI for measuring the engine and
+ * other AIs against
+ */
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
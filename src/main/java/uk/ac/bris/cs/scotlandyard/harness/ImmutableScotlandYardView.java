@@ -20,6 +20,7 @@ import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
 import uk.ac.bris.cs.scotlandyard.model.Move;
 import uk.ac.bris.cs.scotlandyard.model.PassMove;
+import uk.ac.bris.cs.scotlandyard.model.PositionHash;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
 import uk.ac.bris.cs.scotlandyard.model.Ticket;
 import uk.ac.bris.cs.scotlandyard.model.Transport;
@@ -243,9 +244,25 @@ public final class ImmutableScotlandYardView implements ScotlandYardView {
 				Objects.equals(graph, that.graph);
 	}
 
+	/**
+	 * @return the Zobrist hash of the position shown, equal to
+	 *         {@link PositionHash#of(ScotlandYardView)} of this view
+	 */
+	public long positionHash() {
+		long hash = PositionHash.round(currentRound);
+		if (currentPlayer != null) hash ^= PositionHash.current(currentPlayer);
+		for (int i = 0; i < players.size(); i++) {
+			ImmutablePlayer player = players.get(i);
+			hash ^= PositionHash.location(i, player.location);
+			for (Entry<Ticket, Integer> entry : player.tickets.entrySet())
+				hash ^= PositionHash.tickets(i, entry.getKey(), entry.getValue());
+		}
+		return hash;
+	}
+
 	@Override
 	public int hashCode() {
-		return hash(players, winning, gameOver, currentPlayer, currentRound, rounds, graph);
+		return Long.hashCode(positionHash());
 	}
 
 	@Override
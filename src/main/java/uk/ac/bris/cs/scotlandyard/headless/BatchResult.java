@@ -0,0 +1,145 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import static java.util.stream.Collectors.toList;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * The results of all games played by a {@link BatchRunner}, in seed order
+ */
+public final class BatchResult {
+
+	private final List<GameResult> games;
+	private final long nanos;
+
+	BatchResult(List<GameResult> games, long nanos) {
+		this.games = Collections.unmodifiableList(games);
+		this.nanos = nanos;
+	}
+
+	/**
+	 * @return the result of every game including failed ones; never null
+	 */
+	public List<GameResult> games() {
+		return games;
+	}
+
+	/**
+	 * @return the games that stopped with an exception; never null
+	 */
+	public List<GameResult> failures() {
+		return games.stream().filter(g -> g.failure().isPresent()).collect(toList());
+	}
+
+	/**
+	 * @return the number of games that finished
+	 */
+	public int completed() {
+		return games.size() - failures().size();
+	}
+
+	/**
+	 * @return the number of games MrX won
+	 */
+	public int mrXWins() {
+		return (int) games.stream().filter(GameResult::mrXWon).count();
+	}
+
+	/**
+	 * @return the number of games the detectives won
+	 */
+	public int detectiveWins() {
+		return (int) games.stream().filter(GameResult::detectivesWon).count();
+	}
+
+	/**
+	 * @return the fraction of finished games MrX won, 0 if none finished
+	 */
+	public double mrXWinRate() {
+		int completed = completed();
+		return completed == 0 ? 0 : (double) mrXWins() / completed;
+	}
+
+	/**
+	 * @return the fraction of finished games the detectives won, 0 if none
+	 *         finished
+	 */
+	public double detectiveWinRate() {
+		int completed = completed();
+		return completed == 0 ? 0 : (double) detectiveWins() / completed;
+	}
+
+	/**
+	 * @return the mean round finished games ended in, 0 if none finished
+	 */
+	public double meanRounds() {
+		return finished().mapToInt(GameResult::rounds).average().orElse(0);
+	}
+
+	/**
+	 * @return the mean number of turns of finished games, 0 if none finished
+	 */
+	public double meanTurns() {
+		return finished().mapToInt(GameResult::turns).average().orElse(0);
+	}
+
+	/**
+	 * @return the mean time MrX took to choose a move in nanoseconds, 0 if he
+	 *         never moved
+	 */
+	public double meanMrXMoveNanos() {
+		long moves = finished().mapToLong(GameResult::mrXMoves).sum();
+		return moves == 0 ? 0 : (double) finished().mapToLong(GameResult::mrXNanos).sum() / moves;
+	}
+
+	/**
+	 * @return the mean time a detective took to choose a move in nanoseconds,
+	 *         0 if no detective moved
+	 */
+	public double meanDetectiveMoveNanos() {
+		long moves = finished().mapToLong(GameResult::detectiveMoves).sum();
+		return moves == 0 ? 0
+				: (double) finished().mapToLong(GameResult::detectiveNanos).sum() / moves;
+	}
+
+	/**
+	 * @return the wall clock time of the whole batch in nanoseconds
+	 */
+	public long nanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return finished games per second of wall clock time
+	 */
+	public double gamesPerSecond() {
+		return nanos == 0 ? 0 : games.size() / (nanos / 1e9);
+	}
+
+	private Stream<GameResult> finished() {
+		return games.stream().filter(g -> !g.failure().isPresent());
+	}
+
+	/**
+	 * @return a human readable summary of the batch; never null
+	 */
+	public String summary() {
+		return String.format("%d games (%d failed) in %.1fs, %.1f games/s%n"
+						+ "MrX wins %d (%.1f%%), detective wins %d (%.1f%%)%n"
+						+ "mean rounds %.2f, mean turns %.1f%n"
+						+ "mean move time MrX %.3fms, detectives %.3fms",
+				games.size(), games.size() - completed(), nanos / 1e9, gamesPerSecond(),
+				mrXWins(), mrXWinRate() * 100, detectiveWins(), detectiveWinRate() * 100,
+				meanRounds(), meanTurns(), meanMrXMoveNanos() / 1e6,
+				meanDetectiveMoveNanos() / 1e6);
+	}
+
+	@Override
+	public String toString() {
+		return "BatchResult{games=" + games.size() + ", mrXWins=" + mrXWins()
+				+ ", detectiveWins=" + detectiveWins() + ", failures=" + failures().size() + '}';
+	}
+
+}
@@ -0,0 +1,399 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.timer.StandardTimer;
+import uk.ac.bris.cs.gamekit.timer.Timer;
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.ai.DeadlinePlayer;
+import uk.ac.bris.cs.scotlandyard.ai.MrXTracker;
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.ai.VirtualThreads;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.ModelFactories.ImperativeModelFactory;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGame;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGameFactory;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+import uk.ac.bris.cs.scotlandyard.model.Turn;
+
+/**
+ * Plays batches of games between two AIs without any UI. Game {@code i} of a
+ * batch starts from the standard locations generated with seed
+ * {@code firstSeed + i}, so two batches with the same seeds play the same
+ * openings.
+ * <br>
+ * Every game gets fresh {@link PlayerFactory} instances for MrX and for the
+ * detectives, which are readied and finished just like in the UI. A player may
+ * call back on any thread; the game waits for the move and continues on its own
+ * thread. Games run concurrently on an executor, one game per task.
+ * <br>
+ * The resources of each side register a {@link MrXTracker} and a
+ * {@link Random} derived from the seed, so AIs that draw from it, like
+ * {@link RandomPlayerFactory}, play the same game again for the same seed.
+ */
+public final class BatchRunner {
+
+	private static final ExecutorService DECISIONS = VirtualThreads.newExecutor();
+	private static final Timer TIMER = new StandardTimer();
+
+	private final ScotlandYardGameFactory factory;
+	private final Graph<Integer, Transport> graph;
+	private final List<Boolean> rounds;
+	private final AI mrX;
+	private final AI detectives;
+	private final int detectiveCount;
+	private final int games;
+	private final int firstSeed;
+	private final int threads;
+	private final ExecutorService executor;
+	private final Consumer<GameResult> listener;
+	private final Duration budget;
+
+	private BatchRunner(Builder builder) {
+		this.factory = builder.factory;
+		this.graph = builder.graph;
+		this.rounds = builder.rounds;
+		this.mrX = builder.mrX;
+		this.detectives = builder.detectives;
+		this.detectiveCount = builder.detectiveCount;
+		this.games = builder.games;
+		this.firstSeed = builder.firstSeed;
+		this.threads = builder.threads;
+		this.executor = builder.executor;
+		this.listener = builder.listener;
+		this.budget = builder.budget;
+	}
+
+	/**
+	 * Plays all games of the batch and waits for them to finish. A game that
+	 * throws is recorded as failed, the rest of the batch still runs.
+	 *
+	 * @return the results in seed order; never null
+	 * @throws InterruptedException if interrupted while waiting, games not yet
+	 *         started are cancelled
+	 */
+	public BatchResult run() throws InterruptedException {
+		ExecutorService service = executor != null
+				? executor
+				: Executors.newFixedThreadPool(threads);
+		long start = System.nanoTime();
+		List<Future<GameResult>> futures = new ArrayList<>(games);
+		try {
+			for (int i = 0; i < games; i++) {
+				int seed = firstSeed + i;
+				futures.add(service.submit(() -> {
+					GameResult result = play(seed);
+					listener.accept(result);
+					return result;
+				}));
+			}
+			List<GameResult> results = new ArrayList<>(games);
+			for (int i = 0; i < futures.size(); i++) {
+				try {
+					results.add(futures.get(i).get());
+				} catch (ExecutionException e) {
+					// the listener or a finish() threw
+					results.add(new GameResult(firstSeed + i, e.getCause()));
+				}
+			}
+			return new BatchResult(results, System.nanoTime() - start);
+		} catch (InterruptedException e) {
+			futures.forEach(f -> f.cancel(true));
+			throw e;
+		} finally {
+			if (executor == null) service.shutdownNow();
+		}
+	}
+
+	/**
+	 * Plays a single game on the calling thread
+	 *
+	 * @param seed the seed for the starting locations
+	 * @return the result of the game; never null
+	 */
+	public GameResult play(int seed) {
+		PlayerFactory mrXFactory = null;
+		PlayerFactory detectiveFactory = null;
+		try {
+			mrXFactory = mrX.instantiate();
+			detectiveFactory = detectives.instantiate();
+
+			TimedPlayer mrXPlayer = new TimedPlayer();
+			List<TimedPlayer> detectivePlayers = new ArrayList<>();
+			List<Integer> locations = StandardGame.generateDetectiveLocations(seed, detectiveCount);
+			List<PlayerConfiguration> configurations = new ArrayList<>();
+			for (int i = 0; i < detectiveCount; i++) {
+				TimedPlayer player = new TimedPlayer();
+				detectivePlayers.add(player);
+				configurations.add(new PlayerConfiguration.Builder(Colour.values()[i + 1])
+						.using(player)
+						.with(StandardGame.generateDetectiveTickets())
+						.at(locations.get(i))
+						.build());
+			}
+			ScotlandYardGame game = factory.createGame(rounds, graph,
+					new PlayerConfiguration.Builder(BLACK)
+							.using(mrXPlayer)
+							.with(StandardGame.generateMrXTickets())
+							.at(StandardGame.generateMrXLocation(seed))
+							.build(),
+					configurations.get(0),
+					configurations.subList(1, detectiveCount)
+							.toArray(new PlayerConfiguration[0]));
+
+			Random sides = new Random(seed);
+			ready(mrXFactory, game, new Random(sides.nextLong()));
+			ready(detectiveFactory, game, new Random(sides.nextLong()));
+			mrXPlayer.use(mrXFactory.createPlayer(BLACK));
+			for (int i = 0; i < detectiveCount; i++)
+				detectivePlayers.get(i).use(detectiveFactory.createPlayer(Colour.values()[i + 1]));
+
+			long start = System.nanoTime();
+			if (game instanceof ScotlandYardModel) {
+				// one turn at a time, moves do not nest on the stack
+				ScotlandYardModel model = (ScotlandYardModel) game;
+				for (Optional<Turn> turn = model.nextTurn(); turn.isPresent(); turn = model.nextTurn())
+					turn.get().player().makeMove(model, turn.get().location(), turn.get().moves(),
+							model::play);
+			} else {
+				while (!game.isGameOver()) game.startRotate();
+			}
+			long nanos = System.nanoTime() - start;
+
+			int detectiveMoves = 0;
+			long detectiveNanos = 0;
+			for (TimedPlayer player : detectivePlayers) {
+				detectiveMoves += player.moves;
+				detectiveNanos += player.nanos;
+			}
+			return new GameResult(seed, new HashSet<>(game.getWinningPlayers()),
+					game.getCurrentRound(), mrXPlayer.moves, detectiveMoves, nanos,
+					mrXPlayer.nanos, detectiveNanos);
+		} catch (Throwable e) {
+			return new GameResult(seed, e);
+		} finally {
+			if (mrXFactory != null) mrXFactory.finish();
+			if (detectiveFactory != null) detectiveFactory.finish();
+		}
+	}
+
+	private void ready(PlayerFactory factory, ScotlandYardGame game, Random random) {
+		HeadlessResources resources = new HeadlessResources(graph);
+		MrXTracker tracker = new MrXTracker(game);
+		game.registerSpectator(tracker);
+		resources.shared(MrXTracker.class, () -> tracker);
+		resources.shared(Random.class, () -> random);
+		factory.createSpectators(game).forEach(game::registerSpectator);
+		factory.ready(resources, resources);
+	}
+
+	// waits for the move of the AI player and times it
+	private final class TimedPlayer implements Player {
+
+		private Player delegate;
+		// null without a budget
+		private DeadlinePlayer timed;
+		private int moves;
+		private long nanos;
+
+		// with a budget the AI runs on its own thread so it can be timed out,
+		// its failures are reported per move
+		void use(Player player) {
+			this.delegate = player;
+			this.timed = budget == null ? null
+					: new DeadlinePlayer(player, budget, DECISIONS, TIMER, e -> {});
+		}
+
+		@Override
+		public void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+				Consumer<Move> callback) {
+			CompletableFuture<Move> chosen = new CompletableFuture<>();
+			long start = System.nanoTime();
+			// a failure after the move has been chosen completes nothing
+			if (timed != null) timed.makeMove(view, location, moves, chosen::complete,
+					chosen::completeExceptionally);
+			else delegate.makeMove(view, location, moves, chosen::complete);
+			Move move = chosen.join();
+			this.nanos += System.nanoTime() - start;
+			this.moves++;
+			callback.accept(move);
+		}
+
+	}
+
+	/**
+	 * A builder for {@link BatchRunner}
+	 */
+	public static class Builder {
+
+		private final AI mrX;
+		private final AI detectives;
+		private ScotlandYardGameFactory factory = new ImperativeModelFactory();
+		private Graph<Integer, Transport> graph;
+		private List<Boolean> rounds = StandardGame.ROUNDS;
+		private int detectiveCount = 5;
+		private int games = 1000;
+		private int firstSeed = 0;
+		private int threads = Runtime.getRuntime().availableProcessors();
+		private ExecutorService executor;
+		private Consumer<GameResult> listener = result -> {};
+		private Duration budget;
+
+		/**
+		 * Creates a builder for games between the given AIs
+		 *
+		 * @param mrX the AI playing MrX; not null
+		 * @param detectives the AI playing all detectives; not null
+		 */
+		public Builder(AI mrX, AI detectives) {
+			this.mrX = requireNonNull(mrX);
+			this.detectives = requireNonNull(detectives);
+		}
+
+		/**
+		 * @param factory creates the model of each game, defaults to
+		 *        {@link ImperativeModelFactory}; not null
+		 * @return the builder for chaining; never null
+		 */
+		public Builder factory(ScotlandYardGameFactory factory) {
+			this.factory = requireNonNull(factory);
+			return this;
+		}
+
+		/**
+		 * @param graph the map, defaults to
+		 *        {@link StandardGame#standardGraph()}; not null
+		 * @return the builder for chaining; never null
+		 */
+		public Builder graph(Graph<Integer, Transport> graph) {
+			this.graph = requireNonNull(graph);
+			return this;
+		}
+
+		/**
+		 * @param rounds the reveal rounds, defaults to
+		 *        {@link StandardGame#ROUNDS}; not null
+		 * @return the builder for chaining; never null
+		 */
+		public Builder rounds(List<Boolean> rounds) {
+			this.rounds = requireNonNull(rounds);
+			return this;
+		}
+
+		/**
+		 * @param detectiveCount the number of detectives, between 1 and 5,
+		 *        defaults to 5
+		 * @return the builder for chaining; never null
+		 */
+		public Builder detectives(int detectiveCount) {
+			if (detectiveCount < 1 || detectiveCount >= Colour.values().length)
+				throw new IllegalArgumentException(detectiveCount + " detectives");
+			this.detectiveCount = detectiveCount;
+			return this;
+		}
+
+		/**
+		 * @param games the number of games to play, defaults to 1000
+		 * @return the builder for chaining; never null
+		 */
+		public Builder games(int games) {
+			if (games < 0) throw new IllegalArgumentException("Negative games " + games);
+			this.games = games;
+			return this;
+		}
+
+		/**
+		 * @param firstSeed the seed of the first game, defaults to 0
+		 * @return the builder for chaining; never null
+		 */
+		public Builder firstSeed(int firstSeed) {
+			this.firstSeed = firstSeed;
+			return this;
+		}
+
+		/**
+		 * @param threads the number of games played at once, defaults to the
+		 *        number of processors; ignored if an executor is given
+		 * @return the builder for chaining; never null
+		 */
+		public Builder threads(int threads) {
+			if (threads < 1) throw new IllegalArgumentException(threads + " threads");
+			this.threads = threads;
+			return this;
+		}
+
+		/**
+		 * @param executor runs the games, it is not shut down by the runner;
+		 *        not null
+		 * @return the builder for chaining; never null
+		 */
+		public Builder executor(ExecutorService executor) {
+			this.executor = requireNonNull(executor);
+			return this;
+		}
+
+		/**
+		 * @param listener called with each result as soon as its game ends, on
+		 *        the thread that played it; not null
+		 * @return the builder for chaining; never null
+		 */
+		public Builder listener(Consumer<GameResult> listener) {
+			this.listener = requireNonNull(listener);
+			return this;
+		}
+
+		/**
+		 * @param budget the time per move, after which a random move is played
+		 *        for the AI and its late answer ignored, see
+		 *        {@link DeadlinePlayer}; not null. Defaults to no limit.
+		 * @return the builder for chaining; never null
+		 */
+		public Builder budget(Duration budget) {
+			if (budget.isNegative()) throw new IllegalArgumentException("Negative budget " + budget);
+			this.budget = budget;
+			return this;
+		}
+
+		/**
+		 * @return the runner; never null
+		 * @throws UncheckedIOException if no graph was given and the standard
+		 *         graph cannot be read
+		 */
+		public BatchRunner build() {
+			if (graph == null) {
+				try {
+					graph = StandardGame.standardGraph();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			}
+			return new BatchRunner(this);
+		}
+
+	}
+
+}
@@ -0,0 +1,143 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import static java.util.Objects.requireNonNull;
+
+import java.util.Collections;
+import java.util.Optional;
+import java.util.Set;
+
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+
+/**
+ * The outcome of a single game played by a {@link BatchRunner}
+ */
+public final class GameResult {
+
+	private final int seed;
+	private final Set<Colour> winners;
+	private final int rounds;
+	private final int mrXMoves;
+	private final int detectiveMoves;
+	private final long nanos;
+	private final long mrXNanos;
+	private final long detectiveNanos;
+	private final Throwable failure;
+
+	GameResult(int seed, Set<Colour> winners, int rounds, int mrXMoves, int detectiveMoves,
+			long nanos, long mrXNanos, long detectiveNanos) {
+		this.seed = seed;
+		this.winners = Collections.unmodifiableSet(requireNonNull(winners));
+		this.rounds = rounds;
+		this.mrXMoves = mrXMoves;
+		this.detectiveMoves = detectiveMoves;
+		this.nanos = nanos;
+		this.mrXNanos = mrXNanos;
+		this.detectiveNanos = detectiveNanos;
+		this.failure = null;
+	}
+
+	GameResult(int seed, Throwable failure) {
+		this.seed = seed;
+		this.winners = Collections.emptySet();
+		this.rounds = 0;
+		this.mrXMoves = 0;
+		this.detectiveMoves = 0;
+		this.nanos = 0;
+		this.mrXNanos = 0;
+		this.detectiveNanos = 0;
+		this.failure = requireNonNull(failure);
+	}
+
+	/**
+	 * @return the seed the starting locations were generated from
+	 */
+	public int seed() {
+		return seed;
+	}
+
+	/**
+	 * @return the winning players, empty if the game failed; never null
+	 */
+	public Set<Colour> winners() {
+		return winners;
+	}
+
+	/**
+	 * @return true if MrX won the game
+	 */
+	public boolean mrXWon() {
+		return winners.contains(Colour.BLACK);
+	}
+
+	/**
+	 * @return true if the detectives won the game
+	 */
+	public boolean detectivesWon() {
+		return !winners.isEmpty() && !mrXWon();
+	}
+
+	/**
+	 * @return the round the game ended in
+	 */
+	public int rounds() {
+		return rounds;
+	}
+
+	/**
+	 * @return the number of moves MrX made, a double move counts as one
+	 */
+	public int mrXMoves() {
+		return mrXMoves;
+	}
+
+	/**
+	 * @return the number of moves made by all detectives
+	 */
+	public int detectiveMoves() {
+		return detectiveMoves;
+	}
+
+	/**
+	 * @return the number of moves made by all players
+	 */
+	public int turns() {
+		return mrXMoves + detectiveMoves;
+	}
+
+	/**
+	 * @return the wall clock time of the whole game in nanoseconds
+	 */
+	public long nanos() {
+		return nanos;
+	}
+
+	/**
+	 * @return the time MrX spent choosing moves in nanoseconds
+	 */
+	public long mrXNanos() {
+		return mrXNanos;
+	}
+
+	/**
+	 * @return the time the detectives spent choosing moves in nanoseconds
+	 */
+	public long detectiveNanos() {
+		return detectiveNanos;
+	}
+
+	/**
+	 * @return the exception that stopped the game, if any
+	 */
+	public Optional<Throwable> failure() {
+		return Optional.ofNullable(failure);
+	}
+
+	@Override
+	public String toString() {
+		return failure != null
+				? "GameResult{seed=" + seed + ", failure=" + failure + '}'
+				: "GameResult{seed=" + seed + ", winners=" + winners + ", rounds=" + rounds
+						+ ", turns=" + turns() + ", nanos=" + nanos + '}';
+	}
+
+}
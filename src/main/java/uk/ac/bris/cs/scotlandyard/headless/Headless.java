@@ -0,0 +1,96 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI.VisualiserType;
+import uk.ac.bris.cs.scotlandyard.ai.VirtualThreads;
+import uk.ac.bris.cs.scotlandyard.model.ModelFactories.BitboardModelFactory;
+
+/**
+ * Command line entry point for {@link BatchRunner}, usage:
+ *
+ * <pre>
+ * Headless [--games N] [--threads N] [--detectives N] [--seed N] [--bitboard]
+ *          [--virtual] [--budget MILLIS] &lt;MrX AI&gt; &lt;detectives AI&gt;
+ * </pre>
+ *
+ * With {@code --virtual} every game runs on its own thread from
+ * {@link VirtualThreads} instead of a pool of {@code --threads}. With
+ * {@code --budget} AIs get that long per move before a random move is played
+ * for them.
+ *
+ * AIs are looked up by their {@link uk.ac.bris.cs.scotlandyard.ai.ManagedAI}
+ * name; {@value #RANDOM} plays random moves.
+ */
+public final class Headless {
+
+	/**
+	 * Name of the built in AI backed by {@link RandomPlayerFactory}
+	 */
+	public static final String RANDOM = "Random";
+
+	private Headless() {}
+
+	public static void main(String[] args) throws InterruptedException {
+		List<String> names = new ArrayList<>();
+		int games = 1000;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int detectives = 5;
+		int seed = 0;
+		boolean bitboard = false;
+		boolean virtual = false;
+		Duration budget = null;
+		for (int i = 0; i < args.length; i++) {
+			switch (args[i]) {
+				case "--games": games = Integer.parseInt(args[++i]); break;
+				case "--threads": threads = Integer.parseInt(args[++i]); break;
+				case "--detectives": detectives = Integer.parseInt(args[++i]); break;
+				case "--seed": seed = Integer.parseInt(args[++i]); break;
+				case "--bitboard": bitboard = true; break;
+				case "--virtual": virtual = true; break;
+				case "--budget": budget = Duration.ofMillis(Long.parseLong(args[++i])); break;
+				default: names.add(args[i]);
+			}
+		}
+		if (names.size() != 2) {
+			System.err.println("usage: Headless [--games N] [--threads N] [--detectives N]"
+					+ " [--seed N] [--bitboard] [--virtual] [--budget MILLIS]"
+					+ " <MrX AI> <detectives AI>");
+			System.exit(2);
+		}
+
+		List<AI> ais = new ArrayList<>(AI.scanClasspath());
+		ais.add(AI.fromName(RANDOM, VisualiserType.NONE, RandomPlayerFactory.class));
+		BatchRunner.Builder builder = new BatchRunner.Builder(find(ais, names.get(0)),
+				find(ais, names.get(1)))
+				.games(games)
+				.threads(threads)
+				.detectives(detectives)
+				.firstSeed(seed);
+		if (bitboard) builder.factory(new BitboardModelFactory());
+		if (budget != null) builder.budget(budget);
+		ExecutorService executor = virtual ? VirtualThreads.newExecutor() : null;
+		if (executor != null) builder.executor(executor);
+
+		int total = games;
+		AtomicInteger done = new AtomicInteger();
+		BatchResult result = builder.listener(game -> {
+			game.failure().ifPresent(e -> System.err.println("Game " + game.seed() + " failed: " + e));
+			int finished = done.incrementAndGet();
+			if (finished % Math.max(1, total / 10) == 0) System.err.println(finished + "/" + total);
+		}).build().run();
+		if (executor != null) executor.shutdown();
+		System.out.println(result.summary());
+	}
+
+	private static AI find(List<AI> ais, String name) {
+		return ais.stream().filter(ai -> ai.getName().equals(name)).findFirst()
+				.orElseThrow(() -> new IllegalArgumentException("No AI named " + name));
+	}
+
+}
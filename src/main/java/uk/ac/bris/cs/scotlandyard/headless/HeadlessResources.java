@@ -0,0 +1,102 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import static java.util.Objects.requireNonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import com.google.common.base.Suppliers;
+
+import javafx.geometry.Point2D;
+import javafx.scene.image.Image;
+import javafx.scene.layout.Pane;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.ai.ResourceProvider;
+import uk.ac.bris.cs.scotlandyard.ai.Visualiser;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+/**
+ * Resources and visualiser for the AIs of one side of a headless game. The
+ * images and coordinates are those of the standard game, loaded on first use
+ * and shared by every game; nothing is ever displayed.
+ */
+final class HeadlessResources implements ResourceProvider, Visualiser {
+
+	private static final Supplier<Image> MAP = Suppliers.memoize(
+			() -> load("map", StandardGame.pngMapAsStream()));
+	private static final Map<Ticket, Image> TICKETS = new ConcurrentHashMap<>();
+	private static final Supplier<Map<Integer, Entry<Integer, Integer>>> COORDINATES =
+			Suppliers.memoize(() -> {
+				try {
+					return StandardGame.pngMapPositionEntries();
+				} catch (IOException e) {
+					throw new UncheckedIOException(e);
+				}
+			});
+
+	private final Graph<Integer, Transport> graph;
+	private final Map<Class<?>, Object> shared = new ConcurrentHashMap<>();
+	private Pane surface;
+
+	HeadlessResources(Graph<Integer, Transport> graph) {
+		this.graph = requireNonNull(graph);
+	}
+
+	private static Image load(String name, InputStream stream) {
+		if (stream == null)
+			throw new UncheckedIOException(new IOException("Image " + name + " not found"));
+		try (stream) {
+			return new Image(stream);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	@Override
+	public Image getMap() {
+		return MAP.get();
+	}
+
+	@Override
+	public Image getTicket(Ticket ticket) {
+		return TICKETS.computeIfAbsent(requireNonNull(ticket),
+				t -> load(t.name(), StandardGame.pngTicketAsStream(t)));
+	}
+
+	@Override
+	public Graph<Integer, Transport> getGraph() {
+		return graph;
+	}
+
+	@Override
+	public Point2D coordinateAtNode(int node) {
+		Entry<Integer, Integer> entry = COORDINATES.get().get(node);
+		return entry == null ? null : new Point2D(entry.getKey(), entry.getValue());
+	}
+
+	@Override
+	public <T> T shared(Class<T> type, Supplier<? extends T> factory) {
+		return type.cast(shared.computeIfAbsent(type, t -> factory.get()));
+	}
+
+	@Override
+	public <T> Optional<T> registered(Class<T> type) {
+		return Optional.ofNullable(type.cast(shared.get(type)));
+	}
+
+	// a detached surface, created only for AIs that draw anyway
+	@Override
+	public synchronized Pane surface() {
+		if (surface == null) surface = new Pane();
+		return surface;
+	}
+
+}
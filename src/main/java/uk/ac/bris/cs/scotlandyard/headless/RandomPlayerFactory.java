@@ -0,0 +1,52 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.ai.ResourceProvider;
+import uk.ac.bris.cs.scotlandyard.ai.Visualiser;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+
+/**
+ * Players that pick a uniformly random valid move, a baseline for AIs to be
+ * measured against. Each player draws from its own {@link Random}, seeded
+ * from the one registered with the resources of the game if there is one, see
+ * {@link BatchRunner}.
+ */
+public final class RandomPlayerFactory implements PlayerFactory {
+
+	private Random random = new Random();
+
+	@Override
+	public void ready(Visualiser visualiser, ResourceProvider provider) {
+		provider.registered(Random.class).ifPresent(registered -> random = registered);
+	}
+
+	@Override
+	public Player createPlayer(Colour colour) {
+		return new RandomPlayer(new Random(random.nextLong()));
+	}
+
+	private static final class RandomPlayer implements Player {
+
+		private final Random random;
+
+		RandomPlayer(Random random) {
+			this.random = random;
+		}
+
+		@Override
+		public void makeMove(ScotlandYardView view, int location, Set<Move> moves,
+				Consumer<Move> callback) {
+			callback.accept(new ArrayList<>(moves).get(random.nextInt(moves.size())));
+		}
+
+	}
+
+}
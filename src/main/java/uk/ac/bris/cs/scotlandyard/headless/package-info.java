@@ -0,0 +1,6 @@
+/**
+ * Runs games of {@link uk.ac.bris.cs.scotlandyard.ai.PlayerFactory} AIs
+ * against each other without the JavaFX UI, e.g. to evaluate AI changes over
+ * thousands of games
+ */
+package uk.ac.bris.cs.scotlandyard.headless;
@@ -0,0 +1,104 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
+
+import java.util.Arrays;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+
+/**
+ * Generates moves with bitsets over the nodes of the map. For every node and
+ * ticket the set of nodes reachable with that ticket is a {@link TicketReach}
+ * row, so the destinations of a ticket are a handful of AND/ANDNOT operations
+ * against the detective occupancy.
+ */
+class BitboardMoveGenerator implements MoveGenerator {
+
+	private static final long NONE = -1;
+
+	private final TicketReach reach;
+	private final int nodes;
+	private final int words;
+	private final ThreadLocal<MoveSet.Builder> builders =
+			ThreadLocal.withInitial(MoveSet.Builder::new);
+	// detective occupancy, cleared and refilled on every call
+	private final ThreadLocal<long[]> occupancies;
+
+	BitboardMoveGenerator(AdjacencyIndex<Transport> index) {
+		this.reach = TicketReach.of(index);
+		this.nodes = reach.nodes();
+		this.words = reach.words();
+		this.occupancies = ThreadLocal.withInitial(() -> new long[words]);
+	}
+
+	private static void set(long[] bits, int offset, int node) {
+		bits[offset + (node >>> 6)] |= 1L << node;
+	}
+
+	// nodes occupied by detectives, in the buffer of the calling thread
+	private long[] occupancy(int[] locations) {
+		long[] occupied = occupancies.get();
+		Arrays.fill(occupied, 0);
+		for (int i = 1; i < locations.length; i++)
+			if (locations[i] >= 0 && locations[i] < nodes)
+				set(occupied, 0, locations[i]);
+		return occupied;
+	}
+
+	// adds a move for every free node reachable from source with ticket, moves
+	// are double moves continuing first unless first is NONE
+	private void addMoves(MoveSet.Builder moves, Colour colour, long first, Ticket ticket,
+			int source, long[] occupied) {
+		if (source < 0 || source >= nodes) return;
+		for (int word = 0; word < words; word++) {
+			long free = reach.word(ticket, source, word) & ~occupied[word];
+			while (free != 0) {
+				int destination = (word << 6) + Long.numberOfTrailingZeros(free);
+				moves.add(first == NONE
+						? PackedMove.ticket(colour, ticket, destination)
+						: PackedMove.then(first, ticket, destination));
+				free &= free - 1;
+			}
+		}
+	}
+
+	@Override
+	public MoveSet validMoves(Colour colour, int location, int[] tickets, int[] locations,
+			boolean doubleMoves) {
+		long[] occupied = occupancy(locations);
+		MoveSet.Builder moves = builders.get().clear();
+
+		for (Ticket ticket : TicketReach.TRAVEL)
+			if (tickets[ticket.ordinal()] != 0)
+				addMoves(moves, colour, NONE, ticket, location, occupied);
+		int firstMoves = moves.size();
+
+		if (doubleMoves && tickets[DOUBLE.ordinal()] != 0) {
+			for (int i = 0; i < firstMoves; i++) {
+				long first = moves.get(i);
+				for (Ticket ticket : TicketReach.TRAVEL)
+					// the first move has used one ticket already
+					if (tickets[ticket.ordinal()] >= (ticket == PackedMove.ticket(first) ? 2 : 1))
+						addMoves(moves, colour, first, ticket, PackedMove.destination(first),
+								occupied);
+			}
+		}
+
+		if (firstMoves == 0 && colour.isDetective())
+			moves.add(PackedMove.pass(colour));
+		return moves.build();
+	}
+
+	@Override
+	public boolean hasAnyValidMove(Colour colour, int location, int[] tickets, int[] locations) {
+		if (location < 0 || location >= nodes) return false;
+		long[] occupied = occupancy(locations);
+		for (Ticket ticket : TicketReach.TRAVEL) {
+			if (tickets[ticket.ordinal()] == 0) continue;
+			for (int word = 0; word < words; word++)
+				if ((reach.word(ticket, location, word) & ~occupied[word]) != 0) return true;
+		}
+		return false;
+	}
+
+}
@@ -86,7 +86,9 @@ public class DoubleMove extends Move {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), firstMove, secondMove);
+		// same value as Objects.hash(super.hashCode(), firstMove, secondMove) without varargs
+		return (31 * (31 + super.hashCode()) + Objects.hashCode(firstMove)) * 31
+				+ Objects.hashCode(secondMove);
 	}
 
 	@Override
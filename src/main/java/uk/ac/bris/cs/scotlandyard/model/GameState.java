@@ -0,0 +1,374 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+
+/**
+ * An immutable position in a game of Scotland Yard, following the same rules
+ * as {@link ScotlandYardModel} without notifying any {@link Spectator}s.
+ * {@link #advance(Move)} returns the position after a move and leaves this one
+ * untouched; the rules, the map and every ticket ledger the move does not
+ * change are shared between the two, so branching is cheap.
+ * <br>
+ * As a {@link ScotlandYardView} a state reports the last known location of
+ * MrX, just like the model; {@link #location(Colour)} gives his true location.
+ * Use {@link ScotlandYardModel#snapshot()} to capture a running game.
+ */
+public final class GameState implements ScotlandYardView {
+
+	final Rules rules;
+	// locations in play order, MrX first
+	final int[] locations;
+	// ticket counts in play order indexed by Ticket.ordinal(), rows are shared between states
+	final int[][] tickets;
+	final int round;
+	final int current;
+	final int mrXLastLocation;
+	final long hash;
+	// valid moves of the current player, created on first use
+	private MoveSet moves;
+
+	// takes ownership of the arrays
+	GameState(Rules rules, int[] locations, int[][] tickets, int round, int current,
+			int mrXLastLocation, long hash) {
+		this.rules = rules;
+		this.locations = locations;
+		this.tickets = tickets;
+		this.round = round;
+		this.current = current;
+		this.mrXLastLocation = mrXLastLocation;
+		this.hash = hash;
+	}
+
+	/**
+	 * Creates the position shown by a view with MrX at the given location.
+	 * Players that only see the last known location of MrX, e.g. detectives,
+	 * can search from a guess of where he is.
+	 *
+	 * @param view the view, e.g. the one passed to
+	 *        {@link Player#makeMove(ScotlandYardView, int, Set,
+	 *        java.util.function.Consumer)}; not null
+	 * @param mrXLocation the true or guessed location of MrX
+	 * @return the position; never null
+	 * @throws IllegalArgumentException if the location is not on the map
+	 */
+	public static GameState of(ScotlandYardView view, int mrXLocation) {
+		requireNonNull(view);
+		Rules rules = view instanceof ScotlandYardModel
+				? ((ScotlandYardModel) view).rules()
+				: rules(view, view.getGraph());
+		return of(view, mrXLocation, rules);
+	}
+
+	/**
+	 * Creates the position shown by a view of the same game as this position,
+	 * like {@link #of(ScotlandYardView, int)} but reusing the players, rounds
+	 * and move generator of this position. Players that search every move
+	 * should keep their last position and call this instead.
+	 *
+	 * @param view the view; not null
+	 * @param mrXLocation the true or guessed location of MrX
+	 * @return the position; never null
+	 * @throws IllegalArgumentException if the location is not on the map
+	 */
+	public GameState withView(ScotlandYardView view, int mrXLocation) {
+		requireNonNull(view);
+		if (!rules.graph.equals(view.getGraph()) || !view.getPlayers().equals(rules.colours)
+				|| !view.getRounds().equals(rules.rounds))
+			return GameState.of(view, mrXLocation);
+		return of(view, mrXLocation, rules);
+	}
+
+	private static GameState of(ScotlandYardView view, int mrXLocation, Rules rules) {
+		Graph<Integer, Transport> graph = view.getGraph();
+		if (!graph.containsNode(mrXLocation))
+			throw new IllegalArgumentException("MrX location " + mrXLocation + " is not on the map");
+		List<Colour> colours = view.getPlayers();
+		int[] locations = new int[colours.size()];
+		int[][] tickets = new int[colours.size()][Ticket.values().length];
+		for (int i = 0; i < locations.length; i++) {
+			Colour colour = colours.get(i);
+			locations[i] = i == 0 ? mrXLocation : view.getPlayerLocation(colour).orElseThrow(
+					() -> new IllegalArgumentException("No location for " + colour));
+			for (Ticket ticket : Ticket.values())
+				tickets[i][ticket.ordinal()] = view.getPlayerTickets(colour, ticket).orElse(0);
+		}
+		int round = view.getCurrentRound();
+		int current = colours.indexOf(view.getCurrentPlayer());
+		int mrXLastLocation = view.getPlayerLocation(BLACK).orElse(0);
+		return new GameState(rules, locations, tickets, round, current, mrXLastLocation,
+				PositionHash.of(colours, locations, tickets, round, current, mrXLastLocation));
+	}
+
+	// rules for a view that is not a model, the index is shared if the graph is
+	private static Rules rules(ScotlandYardView view, Graph<Integer, Transport> graph) {
+		AdjacencyIndex<Transport> index = ScotlandYardGraphReader.indexOf(graph);
+		return new Rules(view.getPlayers(), view.getRounds(), graph, index,
+				new IndexMoveGenerator(index));
+	}
+
+	/**
+	 * @param location the true or guessed location of MrX
+	 * @return this position with MrX at the given location; never null
+	 * @throws IllegalArgumentException if the location is not on the map
+	 */
+	public GameState withMrXAt(int location) {
+		if (!rules.graph.containsNode(location))
+			throw new IllegalArgumentException("MrX location " + location + " is not on the map");
+		int[] locations = this.locations.clone();
+		locations[0] = location;
+		return new GameState(rules, locations, tickets, round, current, mrXLastLocation,
+				hash ^ PositionHash.mrX(this.locations[0]) ^ PositionHash.mrX(location));
+	}
+
+	/**
+	 * @return the valid moves of the current player; never null
+	 */
+	public MoveSet validMoves() {
+		MoveSet moves = this.moves;
+		if (moves == null) {
+			moves = rules.validMoves(current, locations, tickets[current], round);
+			// MoveSet is immutable so racing threads at worst generate it twice
+			this.moves = moves;
+		}
+		return moves;
+	}
+
+	/**
+	 * Plays a move of the current player
+	 *
+	 * @param move the move; not null
+	 * @return the state after the move; never null
+	 * @throws IllegalStateException if the game is over
+	 * @throws IllegalArgumentException if the move is not one of
+	 *         {@link #validMoves()}
+	 */
+	public GameState advance(Move move) {
+		requireNonNull(move);
+		if (isGameOver()) throw new IllegalStateException("Game is over");
+		long packed = PackedMove.tryEncode(move);
+		if (packed == PackedMove.INVALID || !validMoves().containsPacked(packed))
+			throw new IllegalArgumentException("Invalid move " + move);
+		return apply(packed);
+	}
+
+	/**
+	 * Plays a packed move of the current player
+	 *
+	 * @param move the {@link PackedMove}
+	 * @return the state after the move; never null
+	 * @throws IllegalStateException if the game is over
+	 * @throws IllegalArgumentException if the move is not one of
+	 *         {@link #validMoves()}
+	 */
+	public GameState advance(long move) {
+		if (isGameOver()) throw new IllegalStateException("Game is over");
+		if (!validMoves().containsPacked(move))
+			throw new IllegalArgumentException("Invalid move " + PackedMove.decode(move));
+		return apply(move);
+	}
+
+	private GameState apply(long move) {
+		int[] locations = this.locations.clone();
+		int[][] tickets = this.tickets.clone();
+		int round = this.round;
+		int mrXLastLocation = this.mrXLastLocation;
+		int next = (current + 1) % locations.length;
+		long hash = this.hash
+				^ PositionHash.current(rules.colours.get(current))
+				^ PositionHash.current(rules.colours.get(next));
+		int kind = PackedMove.kind(move);
+
+		if (kind == PackedMove.TICKET && current != 0) {
+			Ticket ticket = PackedMove.ticket(move);
+			int destination = PackedMove.destination(move);
+			hash ^= PositionHash.location(current, locations[current])
+					^ PositionHash.location(current, destination);
+			locations[current] = destination;
+			hash ^= PositionHash.adjust(ledger(tickets, current), current, ticket, -1);
+			//detectives hand their tickets to MrX
+			hash ^= PositionHash.adjust(ledger(tickets, 0), 0, ticket, 1);
+		} else if (kind != PackedMove.PASS) {
+			int[] mrX = ledger(tickets, 0);
+			if (kind == PackedMove.DOUBLE) hash ^= PositionHash.adjust(mrX, 0, DOUBLE, -1);
+			for (int i = 0; i < (kind == PackedMove.DOUBLE ? 2 : 1); i++) {
+				Ticket ticket = i == 0 ? PackedMove.ticket(move) : PackedMove.secondTicket(move);
+				int destination = i == 0
+						? PackedMove.destination(move)
+						: PackedMove.secondDestination(move);
+				hash ^= PositionHash.mrX(locations[0]) ^ PositionHash.mrX(destination);
+				locations[0] = destination;
+				if (rules.reveal(round)) {
+					hash ^= PositionHash.location(0, mrXLastLocation)
+							^ PositionHash.location(0, destination);
+					mrXLastLocation = destination;
+				}
+				hash ^= PositionHash.adjust(mrX, 0, ticket, -1);
+				hash ^= PositionHash.round(round) ^ PositionHash.round(round + 1);
+				round++;
+			}
+		}
+		return new GameState(rules, locations, tickets, round, next, mrXLastLocation, hash);
+	}
+
+	// the ledger of a player, copied the first time it changes
+	private int[] ledger(int[][] tickets, int player) {
+		if (tickets[player] == this.tickets[player])
+			tickets[player] = tickets[player].clone();
+		return tickets[player];
+	}
+
+	/**
+	 * @return the Zobrist hash of this position including the true location
+	 *         of MrX, see {@link PositionHash}
+	 */
+	public long positionHash() {
+		return hash;
+	}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @return the true location of the player, including MrX
+	 * @throws IllegalArgumentException if the player is not in the game
+	 */
+	public int location(Colour colour) {
+		return locations[indexOf(colour)];
+	}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @param ticket the ticket to count; not null
+	 * @return the number of the given ticket the player holds
+	 * @throws IllegalArgumentException if the player is not in the game
+	 */
+	public int tickets(Colour colour, Ticket ticket) {
+		return tickets[indexOf(colour)][ticket.ordinal()];
+	}
+
+	/**
+	 * Counts the moves of a player as if it were their turn in this position,
+	 * without generating them. For the current player this is the size of
+	 * {@link #validMoves()}.
+	 *
+	 * @param colour the colour of the player; not null
+	 * @return the number of valid moves, 1 for a detective who must pass
+	 * @throws IllegalArgumentException if the player is not in the game
+	 */
+	public int validMoveCount(Colour colour) {
+		int index = indexOf(colour);
+		MoveSet moves = this.moves;
+		if (index == current && moves != null) return moves.size();
+		return rules.countValidMoves(index, locations, tickets[index], round);
+	}
+
+	private int indexOf(Colour colour) {
+		int index = rules.indexOf(requireNonNull(colour));
+		if (index < 0) throw new IllegalArgumentException(colour + " is not playing");
+		return index;
+	}
+
+	@Override
+	public List<Colour> getPlayers() {
+		return rules.colours;
+	}
+
+	@Override
+	public Set<Colour> getWinningPlayers() {
+		return rules.winningPlayers(locations, tickets, current, round, mrXCornered());
+	}
+
+	@Override
+	public Optional<Integer> getPlayerLocation(Colour colour) {
+		if (colour == BLACK) return Optional.of(mrXLastLocation);
+		int index = rules.indexOf(colour);
+		return index < 0 ? Optional.empty() : Optional.of(locations[index]);
+	}
+
+	@Override
+	public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
+		int index = rules.indexOf(colour);
+		return index < 0 ? Optional.empty() : Optional.of(tickets[index][ticket.ordinal()]);
+	}
+
+	// reuses the moves if they were generated, otherwise stops at the first one
+	private boolean mrXCornered() {
+		if (current != 0) return false;
+		MoveSet moves = this.moves;
+		return moves != null ? moves.isEmpty()
+				: !rules.hasAnyValidMove(current, locations, tickets[current]);
+	}
+
+	@Override
+	public boolean isGameOver() {
+		return rules.mrXCaptured(locations)
+				|| rules.mrXNotCaptured(current, round)
+				|| rules.detectivesStuck(tickets)
+				|| mrXCornered();
+	}
+
+	@Override
+	public Colour getCurrentPlayer() {
+		return rules.colours.get(current);
+	}
+
+	@Override
+	public int getCurrentRound() {
+		return round;
+	}
+
+	@Override
+	public List<Boolean> getRounds() {
+		return rules.rounds;
+	}
+
+	@Override
+	public Graph<Integer, Transport> getGraph() {
+		return rules.graph;
+	}
+
+	/**
+	 * States are equal when they belong to the same game and all locations,
+	 * tickets, the round and the current player are equal
+	 */
+	@Override
+	public boolean equals(Object o) {
+		if (this == o) return true;
+		if (o == null || getClass() != o.getClass()) return false;
+		GameState that = (GameState) o;
+		return rules == that.rules
+				&& round == that.round
+				&& current == that.current
+				&& mrXLastLocation == that.mrXLastLocation
+				&& Arrays.equals(locations, that.locations)
+				&& Arrays.deepEquals(tickets, that.tickets);
+	}
+
+	@Override
+	public int hashCode() {
+		return Long.hashCode(hash);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder sb = new StringBuilder("GameState{");
+		sb.append("round=").append(round);
+		sb.append(", current=").append(getCurrentPlayer());
+		sb.append(", mrXLastLocation=").append(mrXLastLocation);
+		for (int i = 0; i < locations.length; i++) {
+			sb.append(", ").append(rules.colours.get(i)).append('@').append(locations[i]);
+			sb.append(Arrays.toString(tickets[i]));
+		}
+		sb.append('}');
+		return sb.toString();
+	}
+
+}
@@ -0,0 +1,127 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+
+/**
+ * Generates moves by walking the edges of an {@link AdjacencyIndex} and
+ * checking every detective for occupied nodes
+ */
+class IndexMoveGenerator implements MoveGenerator {
+
+	private final AdjacencyIndex<Transport> index;
+	private final ThreadLocal<MoveSet.Builder> builders =
+			ThreadLocal.withInitial(MoveSet.Builder::new);
+
+	IndexMoveGenerator(AdjacencyIndex<Transport> index) {
+		this.index = index;
+	}
+
+	//check if the node is occupied by any detectives, MrX is always first
+	private boolean validNode(int[] locations, int destination) {
+		boolean valid = true;
+		for (int i = 1; i < locations.length; i++) {
+			if (locations[i] == destination) {
+				//invalid node as node is occupied by detective
+				valid = false;
+			}
+		}
+		return valid;
+	}
+
+	//method to generate moves for a player into the builder, returns number of moves added
+	private int firstMove (Colour colour, int location, int[] tickets, int[] locations,
+			MoveSet.Builder moves){
+		int added = 0;
+
+		//iterate through all edges coming from the location (node)
+		for(int edge = index.start(location); edge < index.end(location); edge++){
+			//get destination of the edge
+			int destination = index.target(edge);
+			// check if destination (node) is occupied
+			if (validNode(locations, destination)){
+				Ticket ticket = Ticket.fromTransport(index.data(edge));
+				//check if player has ticket to travel to destination(node)
+				if (tickets[ticket.ordinal()] != 0) {
+					//generate moves for player
+					moves.add(PackedMove.ticket(colour, ticket, destination));
+					added++;
+				}
+				// check if player has SECRET ticket (if player has secret ticket, player is MrX)
+				if (tickets[SECRET.ordinal()] != 0) {
+					//generates moves for player
+					moves.add(PackedMove.ticket(colour, SECRET, destination));
+					added++;
+				}
+			}
+		}
+		return added;
+	}
+
+	//Method to generate double moves for MrX from the first moves in the builder
+	private void doubleMove (int[] tickets, int[] locations, int firstMoves,
+			MoveSet.Builder moves) {
+		for (int i = 0; i < firstMoves; i++) {
+			long move1 = moves.get(i);
+			Ticket ticket1 = PackedMove.ticket(move1);
+
+			// iterate through each edge from firstMoves destination(node)
+			int source = PackedMove.destination(move1);
+			for (int edge = index.start(source); edge < index.end(source); edge++) {
+				// get destination (node)of edge
+				int destination = index.target(edge);
+				// check if occupied by detective
+				if (validNode(locations, destination)) {
+					Ticket ticket = Ticket.fromTransport(index.data(edge));
+					//check for appropriate ticket, the first move has used one already
+					if (tickets[ticket.ordinal()] >= (ticket == ticket1 ? 2 : 1))
+						moves.add(PackedMove.then(move1, ticket, destination));
+					if (tickets[SECRET.ordinal()] >= (ticket1 == SECRET ? 2 : 1))
+						moves.add(PackedMove.then(move1, SECRET, destination));
+				}
+			}
+		}
+	}
+
+	//method to generate pass move
+	private void passMove (int firstMoves, Colour colour, MoveSet.Builder moves){
+		// if detectives have no moves left, generate pass move
+		if (firstMoves == 0 && colour.isDetective()) {
+			moves.add(PackedMove.pass(colour));
+		}
+	}
+
+	@Override
+	public MoveSet validMoves(Colour colour, int location, int[] tickets, int[] locations,
+			boolean doubleMoves) {
+		// stores all final validMove for the currentPlayer, duplicates are removed on build
+		MoveSet.Builder moves = builders.get().clear();
+		int firstMoves = firstMove(colour, location, tickets, locations, moves);
+
+		//check if player (MrX) has DOUBLE ticket and if double moves are allowed this round
+		if(tickets[DOUBLE.ordinal()] != 0 && doubleMoves) {
+			doubleMove(tickets, locations, firstMoves, moves);
+		}
+
+		passMove(firstMoves, colour, moves);
+
+		return moves.build();
+	}
+
+	@Override
+	public boolean hasAnyValidMove(Colour colour, int location, int[] tickets, int[] locations) {
+		boolean secret = tickets[SECRET.ordinal()] != 0;
+		//stop at the first free destination the player has a ticket for
+		for (int edge = index.start(location); edge < index.end(location); edge++) {
+			Ticket ticket = Ticket.fromTransport(index.data(edge));
+			if ((secret || tickets[ticket.ordinal()] != 0)
+					&& validNode(locations, index.target(edge))) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
@@ -0,0 +1,108 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+
+/**
+ * Counts the moves a {@link MoveGenerator} would generate without generating
+ * them. The destinations of a ticket are a {@link TicketReach} row and their
+ * number is kept in a degree table, so the moves with a ticket are its degree
+ * less the detectives on its row.
+ * <br>
+ * Rows are sets of destinations, so parallel edges count once and the SECRET
+ * move to a node counts once however many transports lead there, just as a
+ * {@link MoveSet} drops the duplicates generated for them.
+ */
+final class MoveCounter {
+
+	// keyed by identity, counters of the same index are shared
+	private static final LoadingCache<AdjacencyIndex<Transport>, MoveCounter> COUNTERS =
+			CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(MoveCounter::new));
+
+	private final TicketReach reach;
+	private final int nodes;
+	private final int words;
+	// degree[ticket.ordinal()][node], the number of nodes in the row
+	private final int[][] degree = new int[Ticket.values().length][];
+
+	private MoveCounter(AdjacencyIndex<Transport> index) {
+		this.reach = TicketReach.of(index);
+		this.nodes = reach.nodes();
+		this.words = reach.words();
+		for (Ticket ticket : TicketReach.TRAVEL) {
+			int[] degrees = new int[nodes];
+			for (int node = 0; node < nodes; node++)
+				for (int word = 0; word < words; word++)
+					degrees[node] += Long.bitCount(reach.word(ticket, node, word));
+			degree[ticket.ordinal()] = degrees;
+		}
+	}
+
+	/**
+	 * @param index the index of the map; not null
+	 * @return the counter of the index, built on first use; never null
+	 */
+	static MoveCounter of(AdjacencyIndex<Transport> index) {
+		return COUNTERS.getUnchecked(index);
+	}
+
+	// nodes occupied by detectives
+	private long[] occupancy(int[] locations) {
+		long[] occupied = new long[words];
+		for (int i = 1; i < locations.length; i++)
+			if (locations[i] >= 0 && locations[i] < nodes)
+				occupied[locations[i] >>> 6] |= 1L << locations[i];
+		return occupied;
+	}
+
+	// the free destinations of a ticket from the node, its degree less the
+	// detectives on its row
+	private int free(Ticket ticket, int node, int[] locations) {
+		int free = degree[ticket.ordinal()][node];
+		for (int i = 1; i < locations.length; i++) {
+			int location = locations[i];
+			if (location >= 0 && location < nodes && reach.contains(ticket, node, location))
+				free--;
+		}
+		return free;
+	}
+
+	/**
+	 * Counts the valid moves of a player, the arguments are those of
+	 * {@link MoveGenerator#validMoves(Colour, int, int[], int[], boolean)}
+	 *
+	 * @return the size of the move set the generator would create, counting
+	 *         the {@link PassMove} of a detective who cannot move
+	 */
+	int count(Colour colour, int location, int[] tickets, int[] locations,
+			boolean doubleMoves) {
+		int singles = 0;
+		int doubles = 0;
+		if (location >= 0 && location < nodes) {
+			long[] occupied = occupancy(locations);
+			boolean twice = doubleMoves && tickets[DOUBLE.ordinal()] != 0;
+			for (Ticket first : TicketReach.TRAVEL) {
+				if (tickets[first.ordinal()] == 0) continue;
+				for (int word = 0; word < words; word++) {
+					long free = reach.word(first, location, word) & ~occupied[word];
+					singles += Long.bitCount(free);
+					for (; twice && free != 0; free &= free - 1) {
+						int destination = (word << 6) + Long.numberOfTrailingZeros(free);
+						for (Ticket second : TicketReach.TRAVEL)
+							// the first move has used one ticket already
+							if (tickets[second.ordinal()] >= (second == first ? 2 : 1))
+								doubles += free(second, destination, locations);
+					}
+				}
+			}
+		}
+		if (singles == 0) return colour.isDetective() ? 1 : 0;
+		return singles + doubles;
+	}
+
+}
@@ -0,0 +1,42 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+/**
+ * Generates valid moves for {@link ScotlandYardModel}, implementations must
+ * produce identical move sets for the same game state
+ */
+interface MoveGenerator {
+
+	/**
+	 * Generates all valid moves of a player at the given location
+	 *
+	 * @param colour the colour of the player to generate moves for; not null
+	 * @param location the location of the player
+	 * @param tickets the ticket counts of the player indexed by
+	 *        {@link Ticket#ordinal()}; not null, not modified
+	 * @param locations the locations of all players in play order, MrX first;
+	 *        every other location is occupied by a detective; not null
+	 * @param doubleMoves whether double moves may be played this round
+	 * @return the valid moves, a {@link PassMove} if a detective cannot move;
+	 *         never null
+	 */
+	MoveSet validMoves(Colour colour, int location, int[] tickets, int[] locations,
+			boolean doubleMoves);
+
+	/**
+	 * Checks whether a player has any valid ticket move without generating
+	 * them. Every double move starts with a valid single move, so this is
+	 * whether {@link #validMoves} would contain anything but a
+	 * {@link PassMove}, whatever the round.
+	 *
+	 * @param colour the colour of the player; not null
+	 * @param location the location of the player
+	 * @param tickets the ticket counts of the player indexed by
+	 *        {@link Ticket#ordinal()}; not null, not modified
+	 * @param locations the locations of all players in play order, MrX first;
+	 *        every other location is occupied by a detective; not null
+	 * @return true if the player can move, false if MrX is cornered or a
+	 *         detective must pass
+	 */
+	boolean hasAnyValidMove(Colour colour, int location, int[] tickets, int[] locations);
+
+}
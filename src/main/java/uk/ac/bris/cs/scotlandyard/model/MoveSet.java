@@ -0,0 +1,198 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable set of moves backed by a sorted array of {@link PackedMove}s.
+ * Membership is a binary search over primitives and {@link Move} objects are
+ * only created while iterating, so move sets are cheap to create and keep.
+ */
+public final class MoveSet extends AbstractSet<Move> {
+
+	private static final MoveSet EMPTY = new MoveSet(new long[0]);
+
+	// sorted and distinct
+	private final long[] moves;
+
+	private MoveSet(long[] moves) {
+		this.moves = moves;
+	}
+
+	/**
+	 * @return the empty move set; never null
+	 */
+	public static MoveSet empty() {
+		return EMPTY;
+	}
+
+	/**
+	 * Creates a move set from packed moves, duplicates are ignored
+	 *
+	 * @param moves the packed moves; not null
+	 * @return the move set; never null
+	 */
+	public static MoveSet of(long... moves) {
+		return fromUnsorted(moves.clone(), moves.length);
+	}
+
+	/**
+	 * Creates a move set containing the given moves
+	 *
+	 * @param moves the moves; not null
+	 * @return the move set; never null
+	 * @throws IllegalArgumentException if any of the moves cannot be packed
+	 */
+	public static MoveSet copyOf(Collection<? extends Move> moves) {
+		if (moves instanceof MoveSet) return (MoveSet) moves;
+		long[] packed = new long[moves.size()];
+		int size = 0;
+		for (Move move : moves)
+			packed[size++] = PackedMove.encode(move);
+		return fromUnsorted(packed, size);
+	}
+
+	// takes ownership of the first size elements of moves
+	private static MoveSet fromUnsorted(long[] moves, int size) {
+		if (size == 0) return EMPTY;
+		Arrays.sort(moves, 0, size);
+		int distinct = 1;
+		for (int i = 1; i < size; i++)
+			if (moves[i] != moves[distinct - 1]) moves[distinct++] = moves[i];
+		return new MoveSet(distinct == moves.length ? moves : Arrays.copyOf(moves, distinct));
+	}
+
+	/**
+	 * @param move the packed move
+	 * @return true if this set contains the packed move
+	 */
+	public boolean containsPacked(long move) {
+		return Arrays.binarySearch(moves, move) >= 0;
+	}
+
+	/**
+	 * @param index the index of the move in the order of packed moves
+	 * @return the packed move
+	 */
+	public long packed(int index) {
+		if (index < 0 || index >= moves.length)
+			throw new IndexOutOfBoundsException("Index " + index + ", size " + moves.length);
+		return moves[index];
+	}
+
+	/**
+	 * @return a copy of all packed moves in ascending order; never null
+	 */
+	public long[] toPackedArray() {
+		return moves.clone();
+	}
+
+	@Override
+	public boolean contains(Object o) {
+		long move = PackedMove.tryEncode(o);
+		return move != PackedMove.INVALID && containsPacked(move);
+	}
+
+	@Override
+	public Iterator<Move> iterator() {
+		return new Iterator<Move>() {
+			private int next;
+
+			@Override
+			public boolean hasNext() {
+				return next < moves.length;
+			}
+
+			@Override
+			public Move next() {
+				if (!hasNext()) throw new NoSuchElementException();
+				return PackedMove.decode(moves[next++]);
+			}
+		};
+	}
+
+	@Override
+	public int size() {
+		return moves.length;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return moves.length == 0;
+	}
+
+	@Override
+	public boolean equals(Object o) {
+		if (o instanceof MoveSet) return Arrays.equals(moves, ((MoveSet) o).moves);
+		return super.equals(o);
+	}
+
+	@Override
+	public int hashCode() {
+		return super.hashCode();
+	}
+
+	/**
+	 * A reusable, growable buffer of packed moves for building
+	 * {@link MoveSet}s. Not thread safe.
+	 */
+	public static final class Builder {
+
+		private long[] moves = new long[64];
+		private int size;
+
+		/**
+		 * Adds a packed move, duplicates are allowed
+		 *
+		 * @param move the packed move
+		 * @return the builder for chaining; never null
+		 */
+		public Builder add(long move) {
+			if (size == moves.length) moves = Arrays.copyOf(moves, size * 2);
+			moves[size++] = move;
+			return this;
+		}
+
+		/**
+		 * @return number of packed moves added since the last {@link #clear()}
+		 */
+		public int size() {
+			return size;
+		}
+
+		/**
+		 * @param index the index in insertion order
+		 * @return the packed move added at the index
+		 */
+		public long get(int index) {
+			if (index < 0 || index >= size)
+				throw new IndexOutOfBoundsException("Index " + index + ", size " + size);
+			return moves[index];
+		}
+
+		/**
+		 * Removes all moves so the buffer can be reused
+		 *
+		 * @return the builder for chaining; never null
+		 */
+		public Builder clear() {
+			size = 0;
+			return this;
+		}
+
+		/**
+		 * Creates a move set from the added moves, the builder is left
+		 * unchanged and may be reused
+		 *
+		 * @return the move set; never null
+		 */
+		public MoveSet build() {
+			return fromUnsorted(Arrays.copyOf(moves, size), size);
+		}
+
+	}
+
+}
@@ -0,0 +1,226 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+/**
+ * Encodes {@link Move}s as {@code long}s so that moves can be stored and
+ * compared without allocating. From the most significant bit, a packed move
+ * consists of its kind, colour, first ticket, second ticket, first
+ * destination and second destination. A {@link TicketMove} stores its ticket
+ * and destination in the first slots; unused slots are zero.
+ * <br>
+ * Packed moves are never negative and order by kind, then colour, then the
+ * first move, then the second move.
+ */
+public final class PackedMove {
+
+	/**
+	 * Kind of a packed {@link PassMove}
+	 */
+	public static final int PASS = 0;
+
+	/**
+	 * Kind of a packed {@link TicketMove}
+	 */
+	public static final int TICKET = 1;
+
+	/**
+	 * Kind of a packed {@link DoubleMove}
+	 */
+	public static final int DOUBLE = 2;
+
+	/**
+	 * Largest destination that can be packed
+	 */
+	public static final int MAX_DESTINATION = (1 << 20) - 1;
+
+	static final long INVALID = -1;
+
+	private static final Colour[] COLOURS = Colour.values();
+	private static final Ticket[] TICKETS = Ticket.values();
+	private static final int SECOND_DESTINATION = 0;
+	private static final int FIRST_DESTINATION = 20;
+	private static final int SECOND_TICKET = 40;
+	private static final int FIRST_TICKET = 43;
+	private static final int COLOUR = 46;
+	private static final int KIND = 49;
+
+	private PackedMove() {}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @return the packed {@link PassMove}
+	 */
+	public static long pass(Colour colour) {
+		return (long) PASS << KIND | (long) colour.ordinal() << COLOUR;
+	}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @param ticket the ticket used; not null
+	 * @param destination the destination, between 0 and {@link #MAX_DESTINATION}
+	 * @return the packed {@link TicketMove}
+	 */
+	public static long ticket(Colour colour, Ticket ticket, int destination) {
+		return (long) TICKET << KIND
+				| (long) colour.ordinal() << COLOUR
+				| (long) ticket.ordinal() << FIRST_TICKET
+				| (long) checkDestination(destination) << FIRST_DESTINATION;
+	}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @param first the first ticket; not null
+	 * @param firstDestination the first destination
+	 * @param second the second ticket; not null
+	 * @param secondDestination the second destination
+	 * @return the packed {@link DoubleMove}
+	 */
+	public static long doubleMove(Colour colour, Ticket first, int firstDestination,
+			Ticket second, int secondDestination) {
+		return (long) DOUBLE << KIND
+				| (long) colour.ordinal() << COLOUR
+				| (long) first.ordinal() << FIRST_TICKET
+				| (long) second.ordinal() << SECOND_TICKET
+				| (long) checkDestination(firstDestination) << FIRST_DESTINATION
+				| (long) checkDestination(secondDestination) << SECOND_DESTINATION;
+	}
+
+	/**
+	 * Appends a second ticket move to a packed ticket move
+	 *
+	 * @param first the packed {@link TicketMove}
+	 * @param second the second ticket; not null
+	 * @param secondDestination the second destination
+	 * @return the packed {@link DoubleMove}
+	 */
+	public static long then(long first, Ticket second, int secondDestination) {
+		if (kind(first) != TICKET)
+			throw new IllegalArgumentException(first + " is not a packed ticket move");
+		return (first & ~(3L << KIND)) | (long) DOUBLE << KIND
+				| (long) second.ordinal() << SECOND_TICKET
+				| (long) checkDestination(secondDestination) << SECOND_DESTINATION;
+	}
+
+	private static int checkDestination(int destination) {
+		if (destination < 0 || destination > MAX_DESTINATION)
+			throw new IllegalArgumentException("Destination " + destination + " out of range");
+		return destination;
+	}
+
+	/**
+	 * Packs a move
+	 *
+	 * @param move the move; not null
+	 * @return the packed move
+	 * @throws IllegalArgumentException if the move cannot be packed
+	 */
+	public static long encode(Move move) {
+		long packed = tryEncode(move);
+		if (packed == INVALID) throw new IllegalArgumentException("Cannot pack " + move);
+		return packed;
+	}
+
+	// packs a move, or returns INVALID if the move has no packed form
+	static long tryEncode(Object o) {
+		if (o == null) return INVALID;
+		if (o.getClass() == TicketMove.class) {
+			TicketMove move = (TicketMove) o;
+			if (!packable(move)) return INVALID;
+			return ticket(move.colour(), move.ticket(), move.destination());
+		}
+		if (o.getClass() == DoubleMove.class) {
+			DoubleMove move = (DoubleMove) o;
+			TicketMove first = move.firstMove();
+			TicketMove second = move.secondMove();
+			if (move.colour() == null || !packable(first) || !packable(second)
+					|| first.colour() != move.colour() || second.colour() != move.colour())
+				return INVALID;
+			return doubleMove(move.colour(), first.ticket(), first.destination(),
+					second.ticket(), second.destination());
+		}
+		if (o.getClass() == PassMove.class) {
+			PassMove move = (PassMove) o;
+			return move.colour() == null ? INVALID : pass(move.colour());
+		}
+		return INVALID;
+	}
+
+	private static boolean packable(TicketMove move) {
+		return move != null
+				&& move.getClass() == TicketMove.class
+				&& move.colour() != null
+				&& move.ticket() != null
+				&& move.destination() >= 0
+				&& move.destination() <= MAX_DESTINATION;
+	}
+
+	/**
+	 * Unpacks a move
+	 *
+	 * @param move the packed move
+	 * @return the move; never null
+	 */
+	public static Move decode(long move) {
+		switch (kind(move)) {
+			case PASS:
+				return new PassMove(colour(move));
+			case TICKET:
+				return new TicketMove(colour(move), ticket(move), destination(move));
+			case DOUBLE:
+				return new DoubleMove(colour(move), ticket(move), destination(move),
+						secondTicket(move), secondDestination(move));
+			default:
+				throw new IllegalArgumentException(move + " is not a packed move");
+		}
+	}
+
+	/**
+	 * @return one of {@link #PASS}, {@link #TICKET} or {@link #DOUBLE}
+	 */
+	public static int kind(long move) {
+		return (int) (move >>> KIND);
+	}
+
+	/**
+	 * @return the colour of the player making the move
+	 */
+	public static Colour colour(long move) {
+		return COLOURS[(int) (move >>> COLOUR & 0b111)];
+	}
+
+	/**
+	 * @return the ticket of a ticket move or the first ticket of a double move
+	 */
+	public static Ticket ticket(long move) {
+		return TICKETS[(int) (move >>> FIRST_TICKET & 0b111)];
+	}
+
+	/**
+	 * @return the destination of a ticket move or the first destination of a
+	 *         double move
+	 */
+	public static int destination(long move) {
+		return (int) (move >>> FIRST_DESTINATION & MAX_DESTINATION);
+	}
+
+	/**
+	 * @return the second ticket of a double move
+	 */
+	public static Ticket secondTicket(long move) {
+		return TICKETS[(int) (move >>> SECOND_TICKET & 0b111)];
+	}
+
+	/**
+	 * @return the second destination of a double move
+	 */
+	public static int secondDestination(long move) {
+		return (int) (move >>> SECOND_DESTINATION & MAX_DESTINATION);
+	}
+
+	/**
+	 * @return the location of the player after the move, or 0 for a pass move
+	 */
+	public static int finalDestination(long move) {
+		return kind(move) == DOUBLE ? secondDestination(move) : destination(move);
+	}
+
+}
@@ -0,0 +1,151 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import java.util.List;
+
+/**
+ * Zobrist hashing of positions. A position hash is the XOR of one 64 bit key
+ * for every player's location, every player's count of each ticket, the
+ * round and the current player, so applying a move only XORs out the keys
+ * that changed and XORs in their replacements. Players are keyed by their
+ * index in {@link ScotlandYardView#getPlayers()}, MrX being index 0.
+ * <br>
+ * {@link #of(ScotlandYardView)} hashes what a view shows, where MrX is at his
+ * last known location. The model, {@link GameState} and {@link SearchBoard}
+ * also know where MrX really is; their {@code positionHash()} is the view
+ * hash XOR {@link #mrX(int)} of his true location.
+ * <br>
+ * Keys are fixed for all games and JVMs, so hashes can be stored and compared
+ * across runs.
+ */
+public final class PositionHash {
+
+	private static final int PLAYERS = Colour.values().length;
+	private static final int TICKETS = Ticket.values().length;
+	// keys within these bounds are tabled, anything larger is derived on demand
+	private static final int NODES = 256;
+	private static final int COUNTS = 32;
+	private static final int ROUNDS = 64;
+
+	private static final int LOCATION = 1, TICKET = 2, ROUND = 3, CURRENT = 4, MRX = 5;
+
+	private static final long[] LOCATIONS = new long[PLAYERS * NODES];
+	private static final long[] COUNT_KEYS = new long[PLAYERS * TICKETS * COUNTS];
+	private static final long[] ROUND_KEYS = new long[ROUNDS];
+	private static final long[] CURRENT_KEYS = new long[PLAYERS];
+	private static final long[] MRX_KEYS = new long[NODES];
+
+	static {
+		for (int player = 0; player < PLAYERS; player++) {
+			CURRENT_KEYS[player] = derive(CURRENT, 0, 0, player);
+			for (int node = 0; node < NODES; node++)
+				LOCATIONS[player * NODES + node] = derive(LOCATION, player, 0, node);
+			for (int ticket = 0; ticket < TICKETS; ticket++)
+				for (int count = 0; count < COUNTS; count++)
+					COUNT_KEYS[(player * TICKETS + ticket) * COUNTS + count] =
+							derive(TICKET, player, ticket, count);
+		}
+		for (int round = 0; round < ROUNDS; round++)
+			ROUND_KEYS[round] = derive(ROUND, 0, 0, round);
+		for (int node = 0; node < NODES; node++)
+			MRX_KEYS[node] = derive(MRX, 0, 0, node);
+	}
+
+	private PositionHash() {}
+
+	// SplitMix64 of the key coordinates, a fixed stand-in for a random table
+	private static long derive(int kind, int player, int ticket, int value) {
+		long z = ((long) kind << 56 | (long) player << 48 | (long) ticket << 40)
+				^ (value & 0xFFFFFFFFL);
+		z = z * 0x9E3779B97F4A7C15L + 0x2545F4914F6CDD1DL;
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * @param player the index of the player in play order
+	 * @param location the location shown for the player
+	 * @return the key of the player being at the location
+	 */
+	public static long location(int player, int location) {
+		return location >= 0 && location < NODES
+				? LOCATIONS[player * NODES + location]
+				: derive(LOCATION, player, 0, location);
+	}
+
+	/**
+	 * @param player the index of the player in play order
+	 * @param ticket the ticket; not null
+	 * @param count the number of tickets held
+	 * @return the key of the player holding count tickets
+	 */
+	public static long tickets(int player, Ticket ticket, int count) {
+		return count >= 0 && count < COUNTS
+				? COUNT_KEYS[(player * TICKETS + ticket.ordinal()) * COUNTS + count]
+				: derive(TICKET, player, ticket.ordinal(), count);
+	}
+
+	/**
+	 * @param round the current round
+	 * @return the key of the round
+	 */
+	public static long round(int round) {
+		return round >= 0 && round < ROUNDS ? ROUND_KEYS[round] : derive(ROUND, 0, 0, round);
+	}
+
+	/**
+	 * @param colour the current player; not null
+	 * @return the key of the player being the current player
+	 */
+	public static long current(Colour colour) {
+		return CURRENT_KEYS[colour.ordinal()];
+	}
+
+	/**
+	 * @param location the true location of MrX
+	 * @return the key of MrX really being at the location
+	 */
+	public static long mrX(int location) {
+		return location >= 0 && location < NODES
+				? MRX_KEYS[location]
+				: derive(MRX, 0, 0, location);
+	}
+
+	/**
+	 * Hashes the position shown by a view, MrX is at his last known location
+	 *
+	 * @param view the view; not null
+	 * @return the hash of the position
+	 */
+	public static long of(ScotlandYardView view) {
+		List<Colour> players = view.getPlayers();
+		long hash = round(view.getCurrentRound()) ^ current(view.getCurrentPlayer());
+		for (int player = 0; player < players.size(); player++) {
+			Colour colour = players.get(player);
+			hash ^= location(player, view.getPlayerLocation(colour).orElse(0));
+			for (Ticket ticket : Ticket.values())
+				hash ^= tickets(player, ticket, view.getPlayerTickets(colour, ticket).orElse(0));
+		}
+		return hash;
+	}
+
+	// the full hash of a position held in arrays
+	static long of(List<Colour> colours, int[] locations, int[][] tickets, int round,
+			int current, int mrXLastLocation) {
+		long hash = round(round) ^ current(colours.get(current)) ^ mrX(locations[0]);
+		for (int player = 0; player < locations.length; player++) {
+			hash ^= location(player, player == 0 ? mrXLastLocation : locations[player]);
+			for (Ticket ticket : Ticket.values())
+				hash ^= tickets(player, ticket, tickets[player][ticket.ordinal()]);
+		}
+		return hash;
+	}
+
+	// changes a ticket count of a player and returns the change to the hash
+	static long adjust(int[] ledger, int player, Ticket ticket, int by) {
+		int count = ledger[ticket.ordinal()];
+		ledger[ticket.ordinal()] = count + by;
+		return tickets(player, ticket, count) ^ tickets(player, ticket, count + by);
+	}
+
+}
@@ -0,0 +1,111 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static java.util.Collections.unmodifiableList;
+import static java.util.Collections.unmodifiableSet;
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.BUS;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.UNDERGROUND;
+
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+
+/**
+ * The parts of a game that never change once it is set up: the players in
+ * play order, the rounds, the map and the move generator for the map. Rules
+ * are shared by every {@link GameState} derived from the same game.
+ */
+final class Rules {
+
+	final List<Colour> colours;
+	final List<Boolean> rounds;
+	final Graph<Integer, Transport> graph;
+	final MoveGenerator generator;
+	private final AdjacencyIndex<Transport> index;
+	// created on first count, racing threads at worst look it up twice
+	private MoveCounter counter;
+
+	Rules(List<Colour> colours, List<Boolean> rounds, Graph<Integer, Transport> graph,
+			AdjacencyIndex<Transport> index, MoveGenerator generator) {
+		this.colours = unmodifiableList(new ArrayList<>(colours));
+		this.rounds = unmodifiableList(new ArrayList<>(rounds));
+		this.graph = graph instanceof ImmutableGraph ? graph : new ImmutableGraph<>(graph);
+		this.index = requireNonNull(index);
+		this.generator = requireNonNull(generator);
+	}
+
+	// double moves are not allowed in the last or second last round
+	boolean doubleMoves(int round) {
+		return round != rounds.size() - 1 && round != rounds.size();
+	}
+
+	// whether MrX reveals himself when moving in the given round
+	boolean reveal(int round) {
+		return rounds.get(round);
+	}
+
+	// valid moves of the player at the given index of the play order
+	MoveSet validMoves(int player, int[] locations, int[] tickets, int round) {
+		return generator.validMoves(colours.get(player), locations[player], tickets, locations,
+				doubleMoves(round));
+	}
+
+	// whether the player at the given index of the play order has any ticket move
+	boolean hasAnyValidMove(int player, int[] locations, int[] tickets) {
+		return generator.hasAnyValidMove(colours.get(player), locations[player], tickets,
+				locations);
+	}
+
+	// number of valid moves of the player, without generating them
+	int countValidMoves(int player, int[] locations, int[] tickets, int round) {
+		MoveCounter counter = this.counter;
+		if (counter == null) this.counter = counter = MoveCounter.of(index);
+		return counter.count(colours.get(player), locations[player], tickets, locations,
+				doubleMoves(round));
+	}
+
+	// index of the colour in the play order, or -1 if not playing
+	int indexOf(Colour colour) {
+		return colours.indexOf(colour);
+	}
+
+	// the checks below mirror the game over conditions of ScotlandYardModel,
+	// cornered is whether MrX is the current player and has no valid moves
+
+	boolean mrXCaptured(int[] locations) {
+		for (int i = 1; i < locations.length; i++)
+			if (locations[i] == locations[0]) return true;
+		return false;
+	}
+
+	boolean mrXNotCaptured(int current, int round) {
+		return current == 0 && round == rounds.size();
+	}
+
+	boolean detectivesStuck(int[][] tickets) {
+		for (int i = 1; i < tickets.length; i++)
+			if (tickets[i][TAXI.ordinal()] != 0
+					|| tickets[i][BUS.ordinal()] != 0
+					|| tickets[i][UNDERGROUND.ordinal()] != 0)
+				return false;
+		return true;
+	}
+
+	Set<Colour> winningPlayers(int[] locations, int[][] tickets, int current, int round,
+			boolean cornered) {
+		Set<Colour> winners = EnumSet.noneOf(Colour.class);
+		if (mrXCaptured(locations) || cornered)
+			winners.addAll(colours.subList(1, colours.size()));
+		if (mrXNotCaptured(current, round) || detectivesStuck(tickets))
+			winners.add(BLACK);
+		return unmodifiableSet(winners);
+	}
+
+}
@@ -1,11 +1,23 @@
 package uk.ac.bris.cs.scotlandyard.model;
 
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
+import java.util.Set;
 import java.util.regex.Pattern;
 
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.collect.MapMaker;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.gamekit.graph.DistanceTable;
 import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.Graph;
 import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
 import uk.ac.bris.cs.gamekit.graph.Node;
 import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
@@ -18,6 +30,25 @@ public class ScotlandYardGraphReader {
 
 	private static final String DELIMITER = " ";
 
+	// graphs built by fromLines, nothing else holds the graph they wrap so
+	// they never change; other ImmutableGraphs may wrap a mutable graph
+	private static final Set<Graph<Integer, Transport>> SEALED =
+			Collections.newSetFromMap(new MapMaker().weakKeys().makeMap());
+
+	// keyed by identity, a sealed graph is indexed at most once
+	private static final LoadingCache<Graph<Integer, Transport>,
+			AdjacencyIndex<Transport>> INDICES = CacheBuilder.newBuilder()
+			.weakKeys()
+			.build(CacheLoader.from(graph -> AdjacencyIndex.of(graph, Transport.class)));
+
+	// keyed by identity, the index of an ImmutableGraph is shared
+	private static final LoadingCache<AdjacencyIndex<Transport>,
+			DistanceTable<Transport>> DISTANCES = CacheBuilder.newBuilder()
+			.weakKeys()
+			.build(CacheLoader.from(index -> DistanceTable.cached(index, Transport.class,
+					cacheDirectory().resolve("distances-"
+							+ Integer.toHexString(index.hashCode()) + ".bin"))));
+
 	private ScotlandYardGraphReader() {
 		// nope
 	}
@@ -89,7 +120,46 @@ public class ScotlandYardGraphReader {
 							+ lines.get(i));
 			graph.addEdge(new Edge<>(source, destination, data));
 		}
-		return new ImmutableGraph<>(graph);
+		ImmutableGraph<Integer, Transport> sealed = new ImmutableGraph<>(graph);
+		SEALED.add(sealed);
+		return sealed;
+	}
+
+	/**
+	 * Retrieves the {@link AdjacencyIndex} of a Scotland Yard game map. A graph
+	 * returned by {@link #fromLines(List)} is indexed once and the index is
+	 * shared; any other graph is indexed on every call, as even an
+	 * {@link ImmutableGraph} may wrap a graph that is still being edited.
+	 *
+	 * @param graph the graph; not null
+	 * @return the index; never null
+	 */
+	public static AdjacencyIndex<Transport> indexOf(Graph<Integer, Transport> graph) {
+		if (graph == null) throw new NullPointerException("graph == null");
+		if (SEALED.contains(graph))
+			return INDICES.getUnchecked(graph);
+		return AdjacencyIndex.of(graph, Transport.class);
+	}
+
+	/**
+	 * Retrieves the {@link DistanceTable} of a Scotland Yard game map, the
+	 * fewest moves between any two nodes for every set of transports. Tables
+	 * are built once per {@link #indexOf(Graph) index} and kept on disk in the
+	 * directory named by the {@code scotlandyard.cache} system property,
+	 * {@code scotlandyard} under {@code java.io.tmpdir} by default, so later
+	 * runs only read them.
+	 *
+	 * @param graph the graph; not null
+	 * @return the tables; never null
+	 */
+	public static DistanceTable<Transport> distancesOf(Graph<Integer, Transport> graph) {
+		return DISTANCES.getUnchecked(indexOf(graph));
+	}
+
+	private static Path cacheDirectory() {
+		String directory = System.getProperty("scotlandyard.cache");
+		return directory != null ? Paths.get(directory)
+				: Paths.get(System.getProperty("java.io.tmpdir"), "scotlandyard");
 	}
 
 	private static String[] parseLine(int line, List<String> lines, String delimiter,
@@ -19,35 +19,59 @@ import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.function.Function;
 
-import javafx.collections.FXCollections;
-import org.checkerframework.checker.units.qual.Current;
-import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
 import uk.ac.bris.cs.gamekit.graph.Graph;
 import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
 
-import uk.ac.bris.cs.gamekit.graph.Graph;
-
 // TODO implement all methods and pass all tests
 public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, MoveVisitor{
 	private List<Boolean> rounds;
 	private Graph<Integer, Transport> graph;
+	private MoveGenerator generator;
+	private Rules rules;
 	private List<ScotlandYardPlayer> playerList = new ArrayList<>();
 	private Set<Colour> winningPlayers = new HashSet<>();
+	private Set<Colour> winningView = Collections.unmodifiableSet(winningPlayers);
 	private int CurrentPlayerIndex;
 	private int CurrentRound;
 	private int MrXLastLocation;
+	//Zobrist hash of the position, see PositionHash
+	private long positionHash;
 	private List<Spectator> spectators = new ArrayList<>();
+	//moves of the current player for this turn, null when the state has changed since
+	private MoveSet offeredMoves;
+	//true once driven by nextTurn() and play(), players are then never called
+	private boolean pulled;
+	//whether the game is over, null when the state has changed since
+	private Boolean gameOver;
 
 	public ScotlandYardModel(List<Boolean> rounds,
 				Graph<Integer, Transport> graph,
 				PlayerConfiguration mrX,
 			 	PlayerConfiguration firstDetective,
 				PlayerConfiguration... restOfTheDetectives) {
+		this(IndexMoveGenerator::new, rounds, graph, mrX, firstDetective, restOfTheDetectives);
+	}
+
+	/**
+	 * Creates a model that generates moves with the given engine
+	 *
+	 * @param engine creates the move generator from the index of the graph
+	 */
+	ScotlandYardModel(Function<AdjacencyIndex<Transport>, MoveGenerator> engine,
+				List<Boolean> rounds,
+				Graph<Integer, Transport> graph,
+				PlayerConfiguration mrX,
+				PlayerConfiguration firstDetective,
+				PlayerConfiguration... restOfTheDetectives) {
 
 		ArrayList<PlayerConfiguration> configurations = new ArrayList<>();
 		this.rounds = requireNonNull(rounds);
-		this.graph = requireNonNull(graph);
+		// read only once wrapped, a graph already read only keeps its index
+		this.graph = requireNonNull(graph) instanceof ImmutableGraph ? graph
+				: new ImmutableGraph<>(graph);
 
 		if (rounds.isEmpty()) {
 			throw new IllegalArgumentException("Empty rounds");
@@ -56,6 +80,8 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		if (graph.isEmpty()) {
 			throw new IllegalArgumentException("Empty Map");
 		}
+		AdjacencyIndex<Transport> index = ScotlandYardGraphReader.indexOf(this.graph);
+		this.generator = engine.apply(index);
 
 		if (mrX.colour != BLACK) {
 			throw new IllegalArgumentException("MrX should be Black");
@@ -109,6 +135,8 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		CurrentPlayerIndex = 0;
 		CurrentRound = NOT_STARTED;
 		MrXLastLocation = 0;
+		rules = new Rules(getPlayers(), rounds, this.graph, index, generator);
+		positionHash = PositionHash.of(this) ^ PositionHash.mrX(playerList.get(0).location());
 	}
 
 	@Override
@@ -134,122 +162,39 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		return Collections.unmodifiableList(spectators);
 	}
 
-	//check if the node is occupied by any detectives
-	private boolean validNode(int destination) {
-		boolean valid = true;
-		for (ScotlandYardPlayer Player : playerList) {
-			if (Player.location() == destination && Player.isDetective()) {
-				//invalid node as node is occupied by detective
-				valid = false;
-			}
-		}
-		return valid;
-	}
-
-	//method to generate moves for a player
-	private Set<Move> firstMove (ScotlandYardPlayer currentPlayer){
-		//get location of currentPlayer
-		int location = currentPlayer.location();
-
-		//set to store all first moves
-		Set<Move> firstMoves = new HashSet<>();
-
-		//get all edges coming from the location (node)
-		Collection<Edge<Integer, Transport>> edges = graph.getEdgesFrom(graph.getNode(location));
-
-		//iterate through all edges
-		for(Edge<Integer, Transport> edge : edges){
-			//get destination of the edge
-			int destination = edge.destination().value();
-			// check if destination (node) is occupied
-			if (validNode(destination)){
-				//check if player has ticket to travel to destination(node)
-				if (currentPlayer.hasTickets(Ticket.fromTransport(edge.data())))
-					//generate moves for player
-					firstMoves.add(new TicketMove(currentPlayer.colour(), Ticket.fromTransport(edge.data()), destination));
-				// check if player has SECRET ticket (if player has secret ticket, player is MrX)
-				if (currentPlayer.hasTickets(SECRET))
-					//generates moves for player
-					firstMoves.add(new TicketMove(currentPlayer.colour(), SECRET, destination));
-			}
-		}
-		return firstMoves;
-	}
-
-	//Method to generate double move for MrX
-	private Set<Move> doubleMove (ScotlandYardPlayer currentPlayer) {
-		// store all doubleMoves
-		Set<Move> doubleMoves = new HashSet<>();
-		// get all firstMoves
-		Set<Move> firstMoves = firstMove(currentPlayer);
-
-		for (Move move : firstMoves) {
-			// downcast each move
-			TicketMove move1 = (TicketMove) move;
-			//remove the ticket so it won't be considered when check for double move
-			currentPlayer.removeTicket(move1.ticket());
-			Set<Move> secondMoves = new HashSet<>();
-
-			// get edges from firstMoves destination(node)
-			Collection<Edge<Integer, Transport>> secondEdges = graph.getEdgesFrom(graph.getNode(move1.destination()));
-			// iterate through each edge
-			for (Edge<Integer, Transport> edge : secondEdges) {
-				// get destination (node)of edge
-				int destination = edge.destination().value();
-				// check if occupied by detective
-				if (validNode(destination)) {
-					//check for appropriate ticket
-					if (currentPlayer.hasTickets(Ticket.fromTransport(edge.data())))
-						secondMoves.add(new TicketMove(currentPlayer.colour(), Ticket.fromTransport(edge.data()), destination));
-					if (currentPlayer.hasTickets(SECRET))
-						secondMoves.add(new TicketMove(currentPlayer.colour(), SECRET, destination));
-				}
-			}
-
-			// add ticket back when done with checking
-			currentPlayer.addTicket(move1.ticket());
+	//Generates all possible valid moves of the current player based on player's location
+	private MoveSet validMove(ScotlandYardPlayer currentPlayer) {
+		return generator.validMoves(currentPlayer.colour(), currentPlayer.location(),
+				currentPlayer.ledger(), locations(), rules.doubleMoves(CurrentRound));
+	}
 
-			// iterate through all second moves
-			for (Move move2 : secondMoves){
-				// downcast
-				TicketMove move_2 = (TicketMove) move2;
-				// generate double moves
-				doubleMoves.add(new DoubleMove(currentPlayer.colour(), move1, move_2));
-			}
-		}
-		return doubleMoves;
+	//Checks if the player has any ticket move, stopping at the first one found
+	private boolean hasAnyValidMove(ScotlandYardPlayer player) {
+		return generator.hasAnyValidMove(player.colour(), player.location(), player.ledger(),
+				locations());
 	}
 
-	//method to generate pass move
-	private Set<Move> passMove (Set<Move> firstMoves, ScotlandYardPlayer currentPlayer){
-		Set <Move> passMoves = new HashSet<>();
-		// if detectives have no moves left, generate pass move
-		if (firstMoves.isEmpty() && currentPlayer.isDetective()) {
-			passMoves.add(new PassMove(currentPlayer.colour()));
+	//locations of all players in play order, MrX first
+	private int[] locations() {
+		int[] locations = new int[playerList.size()];
+		for (int i = 0; i < locations.length; i++) {
+			locations[i] = playerList.get(i).location();
 		}
-		return passMoves;
+		return locations;
 	}
 
-	//Generates all possible valid moves of the current player based on player's location
-	private Set<Move> validMove(ScotlandYardPlayer currentPlayer) {
-
-		Set<Move> firstMoves = firstMove(currentPlayer);
-		// stores all final validMove for the currentPlayer
-		//add all first moves to final move set
-		Set<Move> allMoves = new HashSet<>(firstMoves);
-
-
-		//check if player (MrX) has DOUBLE ticket
-		if(currentPlayer.hasTickets(DOUBLE)) {
-			//check if this is last or second last round
-			if (CurrentRound != getRounds().size() - 1 && CurrentRound != getRounds().size()){
-				allMoves.addAll(doubleMove(currentPlayer));
-			}
+	//valid moves of the current player, generated at most once per state
+	private MoveSet offeredMoves() {
+		if (offeredMoves == null) {
+			offeredMoves = validMove(playerList.get(CurrentPlayerIndex));
 		}
+		return offeredMoves;
+	}
 
-		allMoves.addAll(passMove(firstMoves,currentPlayer));
-
-		return allMoves;
+	//called whenever locations, tickets, round or current player change
+	void invalidateMoves() {
+		offeredMoves = null;
+		gameOver = null;
 	}
 
 	@Override
@@ -257,23 +202,28 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		if (isGameOver()) {
 			throw new IllegalStateException("Game is over");
 		}
+		if (pulled) {
+			throw new IllegalStateException("Game is driven by nextTurn()");
+		}
 
 		ScotlandYardPlayer currentPlayer = playerList.get(CurrentPlayerIndex);
-		Set <Move> moves = validMove(currentPlayer);
-		currentPlayer.player().makeMove(this, currentPlayer.location(), moves, this);
+		currentPlayer.player().makeMove(this, currentPlayer.location(), offeredMoves(), this);
 	}
 
 	@Override
 	public void accept(Move move) {
 		requireNonNull(move);
 
-		//check if move is valid
-		if (!validMove(playerList.get(CurrentPlayerIndex)).contains(move)) {
+		//check if move is one of the moves offered this turn
+		if (!offeredMoves().contains(move)) {
 			throw new IllegalArgumentException("Invalid Move");
 		}
 
 		// update the currentPlayerIndex so next player will be called to make move
+		positionHash ^= PositionHash.current(getCurrentPlayer());
 		CurrentPlayerIndex = (CurrentPlayerIndex + 1)%(playerList.size());
+		positionHash ^= PositionHash.current(getCurrentPlayer());
+		invalidateMoves();
 		//get next player
 		ScotlandYardPlayer currentPlayer = playerList.get(CurrentPlayerIndex );
 		//visit the move
@@ -294,14 +244,58 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		}
 
 		//Call makeMove to next player
-		if (!currentPlayer.isMrX() && !isGameOver()) {
-			currentPlayer.player().makeMove(this, currentPlayer.location(), validMove(currentPlayer), this);
+		if (!pulled && !currentPlayer.isMrX() && !isGameOver()) {
+			currentPlayer.player().makeMove(this, currentPlayer.location(), offeredMoves(), this);
 		}
 	}
 
+	/**
+	 * Returns the move the game is waiting for, switching the game to be
+	 * driven by an explicit loop instead of {@link #startRotate()}:
+	 *
+	 * <pre>
+	 * for (Optional&lt;Turn&gt; turn = game.nextTurn(); turn.isPresent(); turn = game.nextTurn())
+	 * 	game.play(choose(turn.get()));
+	 * </pre>
+	 *
+	 * Players are never asked to move in this mode, the loop decides what
+	 * each {@link Turn} plays. Spectators are notified exactly as with
+	 * {@link #startRotate()}. Calling this again before {@link #play(Move)}
+	 * returns the same turn.
+	 *
+	 * @return the pending turn, or empty if the game is over; never null
+	 */
+	public Optional<Turn> nextTurn() {
+		pulled = true;
+		if (isGameOver()) return Optional.empty();
+		ScotlandYardPlayer player = playerList.get(CurrentPlayerIndex);
+		return Optional.of(new Turn(player.colour(), player.player(), player.location(),
+				offeredMoves()));
+	}
+
+	/**
+	 * Plays a move for the current player and returns without asking the next
+	 * player to move, see {@link #nextTurn()}
+	 *
+	 * @param move the move; not null
+	 * @throws IllegalStateException if the game is over
+	 * @throws IllegalArgumentException if the move is not one of the moves of
+	 *         the pending turn
+	 */
+	public void play(Move move) {
+		requireNonNull(move);
+		pulled = true;
+		if (isGameOver()) {
+			throw new IllegalStateException("Game is over");
+		}
+		accept(move);
+	}
+
 	//on reveal round, update mr x last location to current location
 	private void revealRound(int location){
 		if(getRounds().get(CurrentRound)){
+			positionHash ^= PositionHash.location(0, MrXLastLocation)
+					^ PositionHash.location(0, location);
 			MrXLastLocation = location;
 		}
 	}
@@ -317,18 +311,36 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		return prevPlayerIndex;
 	}
 
+	//moves a player and keeps the position hash up to date
+	private void relocate(int index, int location) {
+		ScotlandYardPlayer player = playerList.get(index);
+		if (player.isMrX()) {
+			positionHash ^= PositionHash.mrX(player.location()) ^ PositionHash.mrX(location);
+		} else {
+			positionHash ^= PositionHash.location(index, player.location())
+					^ PositionHash.location(index, location);
+		}
+		player.location(location);
+	}
+
+	//adds (or removes, if negative) tickets and keeps the position hash up to date
+	private void adjustTickets(int index, Ticket ticket, int by) {
+		positionHash ^= PositionHash.adjust(playerList.get(index).ledger(), index, ticket, by);
+	}
+
 	//implementation of visit method for ticket move
 	@Override
 	public void visit (TicketMove move) {
 		ScotlandYardPlayer player = playerList.get(previousPlayer());
 
+		invalidateMoves();
 		if (player.isDetective()) {
 			//update player location
-			player.location(move.destination());
+			relocate(previousPlayer(), move.destination());
 			//remove ticket used from player
-			player.removeTicket(move.ticket());
+			adjustTickets(previousPlayer(), move.ticket(), -1);
 			//add ticket to MrX
-			playerList.get(0).addTicket(move.ticket());
+			adjustTickets(0, move.ticket(), 1);
 
 			//notify spectator on move made
 			for (Spectator spectator : spectators) {
@@ -338,11 +350,12 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 
 		if (player.isMrX()) {
 			//update MrX location
-			player.location(move.destination());
+			relocate(0, move.destination());
 			//deal with reveal round
 			revealRound(player.location());
 			//Remove Location
-			player.removeTicket(move.ticket());
+			adjustTickets(0, move.ticket(), -1);
+			positionHash ^= PositionHash.round(CurrentRound) ^ PositionHash.round(CurrentRound + 1);
 			CurrentRound++;
 
 			//notify spectator abt new round and move made
@@ -364,7 +377,8 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		ScotlandYardPlayer MrX = playerList.get(0);
 
 		//remove double ticket
-		MrX.removeTicket(DOUBLE);
+		adjustTickets(0, DOUBLE, -1);
+		invalidateMoves();
 
 		int location1;
 		int location2;
@@ -410,7 +424,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 	@Override
 	public Set<Colour> getWinningPlayers() {
 		if (isGameOver()) {
-			return Collections.unmodifiableSet(winningPlayers);
+			return winningView;
 		} else {
 			return Collections.emptySet();
 		}
@@ -434,7 +448,7 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 	public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
 		for (ScotlandYardPlayer player : playerList) {
 			if (player.colour() == colour)
-				return Optional.of(player.tickets().get(ticket));
+				return Optional.of(player.tickets(ticket));
 		}
 		return Optional.empty();
 	}
@@ -452,9 +466,15 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		return false;
 	}
 
-	//check if MrX cornered
+	//check if MrX cornered, without generating his moves unless they already are
 	private boolean MrXCornered() {
-		return (getCurrentPlayer() == BLACK && validMove(playerList.get(0)).isEmpty());
+		if (getCurrentPlayer() != BLACK) {
+			return false;
+		}
+		if (offeredMoves != null) {
+			return offeredMoves.isEmpty();
+		}
+		return !hasAnyValidMove(playerList.get(CurrentPlayerIndex));
 	}
 
 	//Check if MrX is not captured in any round
@@ -475,8 +495,17 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		return result;
 	}
 
+	//evaluated at most once per state, spectators and players ask repeatedly
 	@Override
 	public boolean isGameOver() {
+		if (gameOver == null) {
+			gameOver = evaluateGameOver();
+		}
+		return gameOver;
+	}
+
+	//checks every end condition and records the winners
+	private boolean evaluateGameOver() {
 		boolean result = false;
 		if(MrXCaptured() || MrXCornered()){
 			for(ScotlandYardPlayer player : playerList)
@@ -509,9 +538,45 @@ public class ScotlandYardModel implements ScotlandYardGame, Consumer<Move>, Move
 		return Collections.unmodifiableList(rounds);
 	}
 
+	/**
+	 * Captures the current position of the game, including the true location
+	 * of MrX. The snapshot does not change as the game continues. Snapshots
+	 * taken while a move is being applied, e.g. from
+	 * {@link Spectator#onMoveMade(ScotlandYardView, Move)}, may not be a
+	 * position reachable by {@link GameState#advance(Move)}.
+	 *
+	 * @return the current position; never null
+	 */
+	public GameState snapshot() {
+		int[][] tickets = new int[playerList.size()][];
+		for (int i = 0; i < tickets.length; i++) {
+			tickets[i] = playerList.get(i).ledger().clone();
+		}
+		return new GameState(rules, locations(), tickets, CurrentRound, CurrentPlayerIndex,
+				MrXLastLocation, positionHash);
+	}
+
+	/**
+	 * Returns the Zobrist hash of the current position, including the true
+	 * location of MrX. The hash is updated as moves are applied, so this is
+	 * constant time.
+	 *
+	 * @return the position hash, see {@link PositionHash}
+	 */
+	public long positionHash() {
+		return positionHash;
+	}
+
+	/**
+	 * @return the rules of this game, shared with every {@link GameState} of it
+	 */
+	Rules rules() {
+		return rules;
+	}
+
 	@Override
 	public Graph<Integer, Transport> getGraph() {
-		return new ImmutableGraph<>(graph);
+		return graph;
 	}
 
 }
@@ -1,17 +1,27 @@
 package uk.ac.bris.cs.scotlandyard.model;
 
-import java.util.HashMap;
+import java.util.EnumSet;
 import java.util.Map;
+import java.util.Set;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
 
 /**
  * A class that contains all the information about a particular player.
  */
 public class ScotlandYardPlayer {
 
+	private static final Ticket[] TICKETS = Ticket.values();
+	private static final Set<Ticket> ALL_TICKETS =
+			Sets.immutableEnumSet(EnumSet.allOf(Ticket.class));
+
 	private final Player player;
 	private final Colour colour;
 	private int location;
-	private final Map<Ticket, Integer> tickets;
+	// ticket counts indexed by Ticket.ordinal()
+	private final int[] ledger = new int[TICKETS.length];
+	private final Map<Ticket, Integer> tickets = Maps.asMap(ALL_TICKETS, this::tickets);
 
 	/**
 	 * Constructs a new ScotlandYardPlayer object.
@@ -26,7 +36,7 @@ public class ScotlandYardPlayer {
 		this.player = player;
 		this.colour = colour;
 		this.location = location;
-		this.tickets = new HashMap<>(tickets);
+		tickets.forEach((ticket, count) -> ledger[ticket.ordinal()] = count);
 	}
 
 	/**
@@ -78,12 +88,20 @@ public class ScotlandYardPlayer {
 	}
 
 	/**
-	 * @return the player's current tickets.
+	 * @return a read-only view of the player's current tickets.
 	 */
 	public Map<Ticket, Integer> tickets() {
 		return tickets;
 	}
 
+	/**
+	 * @param ticket the ticket to count; not null
+	 * @return the player's current number of the given ticket.
+	 */
+	public int tickets(Ticket ticket) {
+		return ledger[ticket.ordinal()];
+	}
+
 	/**
 	 * Adds a ticket to the player's current tickets.
 	 *
@@ -102,11 +120,13 @@ public class ScotlandYardPlayer {
 		adjustTicketCount(ticket, -1);
 	}
 
+	// the live ticket counts indexed by Ticket.ordinal(), callers must not modify
+	int[] ledger() {
+		return ledger;
+	}
+
 	private void adjustTicketCount(Ticket ticket, int by) {
-		Integer ticketCount = tickets.get(ticket);
-		ticketCount += by;
-		tickets.remove(ticket);
-		tickets.put(ticket, ticketCount);
+		ledger[ticket.ordinal()] += by;
 	}
 
 	/**
@@ -116,7 +136,7 @@ public class ScotlandYardPlayer {
 	 * @return true if the player has the given ticket, false otherwise
 	 */
 	public boolean hasTickets(Ticket ticket) {
-		return tickets.get(ticket) != 0;
+		return ledger[ticket.ordinal()] != 0;
 	}
 
 	/**
@@ -129,7 +149,7 @@ public class ScotlandYardPlayer {
 	 *         otherwise
 	 */
 	public boolean hasTickets(Ticket ticket, int quantityInclusive) {
-		return tickets.get(ticket) >= quantityInclusive;
+		return ledger[ticket.ordinal()] >= quantityInclusive;
 	}
 
 	@Override
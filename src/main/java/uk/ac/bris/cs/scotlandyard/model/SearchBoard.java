@@ -0,0 +1,291 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static java.util.Objects.requireNonNull;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import uk.ac.bris.cs.gamekit.graph.Graph;
+
+/**
+ * A mutable position for depth first search. {@link #make(Move)} plays a move
+ * in place with the rules of {@link ScotlandYardModel}, without notifying any
+ * {@link Spectator}s, and {@link #unmake()} takes back the last move made.
+ * Every move pushes three {@code long}s on an undo stack and nothing else is
+ * allocated, so a board can be reused for a whole search. The
+ * {@link #positionHash()} is kept up to date as moves are made.
+ * <br>
+ * As a {@link ScotlandYardView} a board reports the last known location of
+ * MrX, just like the model; {@link #location(Colour)} gives his true location.
+ * Boards are not thread safe.
+ */
+public final class SearchBoard implements ScotlandYardView {
+
+	private final Rules rules;
+	// locations in play order, MrX first
+	private final int[] locations;
+	// ticket counts in play order indexed by Ticket.ordinal()
+	private final int[][] tickets;
+	private int round;
+	private int current;
+	private int mrXLastLocation;
+	private long hash;
+	// per move: the packed move, the previous location of the player in the
+	// upper half and the previous last known location of MrX in the lower,
+	// then the previous hash
+	private long[] undo = new long[96];
+	private int ply;
+
+	/**
+	 * Creates a board at the given position
+	 *
+	 * @param state the position to start from; not null
+	 */
+	public SearchBoard(GameState state) {
+		requireNonNull(state);
+		this.rules = state.rules;
+		this.locations = state.locations.clone();
+		this.tickets = new int[state.tickets.length][];
+		for (int i = 0; i < tickets.length; i++)
+			tickets[i] = state.tickets[i].clone();
+		this.round = state.round;
+		this.current = state.current;
+		this.mrXLastLocation = state.mrXLastLocation;
+		this.hash = state.hash;
+	}
+
+	/**
+	 * @return the current position as an immutable state; never null
+	 */
+	public GameState toState() {
+		int[][] tickets = new int[this.tickets.length][];
+		for (int i = 0; i < tickets.length; i++)
+			tickets[i] = this.tickets[i].clone();
+		return new GameState(rules, locations.clone(), tickets, round, current, mrXLastLocation,
+				hash);
+	}
+
+	/**
+	 * @return the valid moves of the current player; never null
+	 */
+	public MoveSet validMoves() {
+		return rules.validMoves(current, locations, tickets[current], round);
+	}
+
+	/**
+	 * Plays a move of the current player
+	 *
+	 * @param move the move; not null
+	 * @throws IllegalStateException if the game is over
+	 * @throws IllegalArgumentException if the move is not one of
+	 *         {@link #validMoves()}
+	 */
+	public void make(Move move) {
+		requireNonNull(move);
+		if (isGameOver()) throw new IllegalStateException("Game is over");
+		long packed = PackedMove.tryEncode(move);
+		if (packed == PackedMove.INVALID || !validMoves().containsPacked(packed))
+			throw new IllegalArgumentException("Invalid move " + move);
+		make(packed);
+	}
+
+	/**
+	 * Plays a packed move of the current player without validating it.
+	 * Searches should only pass moves taken from {@link #validMoves()} of the
+	 * current position, anything else leaves the board in an undefined state.
+	 *
+	 * @param move the {@link PackedMove}
+	 */
+	public void make(long move) {
+		if (ply * 3 == undo.length) undo = Arrays.copyOf(undo, undo.length * 2);
+		undo[ply * 3] = move;
+		undo[ply * 3 + 1] = (long) locations[current] << 32 | (mrXLastLocation & 0xFFFFFFFFL);
+		undo[ply * 3 + 2] = hash;
+		ply++;
+
+		int kind = PackedMove.kind(move);
+		if (kind == PackedMove.TICKET && current != 0) {
+			Ticket ticket = PackedMove.ticket(move);
+			int destination = PackedMove.destination(move);
+			hash ^= PositionHash.location(current, locations[current])
+					^ PositionHash.location(current, destination);
+			locations[current] = destination;
+			hash ^= PositionHash.adjust(tickets[current], current, ticket, -1);
+			//detectives hand their tickets to MrX
+			hash ^= PositionHash.adjust(tickets[0], 0, ticket, 1);
+		} else if (kind == PackedMove.TICKET) {
+			moveMrX(PackedMove.ticket(move), PackedMove.destination(move));
+		} else if (kind == PackedMove.DOUBLE) {
+			hash ^= PositionHash.adjust(tickets[0], 0, DOUBLE, -1);
+			moveMrX(PackedMove.ticket(move), PackedMove.destination(move));
+			moveMrX(PackedMove.secondTicket(move), PackedMove.secondDestination(move));
+		}
+		int next = (current + 1) % locations.length;
+		hash ^= PositionHash.current(rules.colours.get(current))
+				^ PositionHash.current(rules.colours.get(next));
+		current = next;
+	}
+
+	private void moveMrX(Ticket ticket, int destination) {
+		hash ^= PositionHash.mrX(locations[0]) ^ PositionHash.mrX(destination);
+		locations[0] = destination;
+		if (rules.reveal(round)) {
+			hash ^= PositionHash.location(0, mrXLastLocation)
+					^ PositionHash.location(0, destination);
+			mrXLastLocation = destination;
+		}
+		hash ^= PositionHash.adjust(tickets[0], 0, ticket, -1);
+		hash ^= PositionHash.round(round) ^ PositionHash.round(round + 1);
+		round++;
+	}
+
+	/**
+	 * Takes back the last move made
+	 *
+	 * @throws IllegalStateException if there is no move to take back
+	 */
+	public void unmake() {
+		if (ply == 0) throw new IllegalStateException("No move to unmake");
+		ply--;
+		long move = undo[ply * 3];
+		long previous = undo[ply * 3 + 1];
+		hash = undo[ply * 3 + 2];
+		current = (current + locations.length - 1) % locations.length;
+		locations[current] = (int) (previous >>> 32);
+		mrXLastLocation = (int) previous;
+
+		int kind = PackedMove.kind(move);
+		if (kind == PackedMove.TICKET && current != 0) {
+			int ticket = PackedMove.ticket(move).ordinal();
+			tickets[current][ticket]++;
+			tickets[0][ticket]--;
+		} else if (kind == PackedMove.TICKET) {
+			tickets[0][PackedMove.ticket(move).ordinal()]++;
+			round--;
+		} else if (kind == PackedMove.DOUBLE) {
+			tickets[0][DOUBLE.ordinal()]++;
+			tickets[0][PackedMove.ticket(move).ordinal()]++;
+			tickets[0][PackedMove.secondTicket(move).ordinal()]++;
+			round -= 2;
+		}
+	}
+
+	/**
+	 * @return the Zobrist hash of this position including the true location
+	 *         of MrX, see {@link PositionHash}
+	 */
+	public long positionHash() {
+		return hash;
+	}
+
+	/**
+	 * @return the number of moves that can be taken back
+	 */
+	public int ply() {
+		return ply;
+	}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @return the true location of the player, including MrX
+	 * @throws IllegalArgumentException if the player is not in the game
+	 */
+	public int location(Colour colour) {
+		return locations[indexOf(colour)];
+	}
+
+	/**
+	 * @param colour the colour of the player; not null
+	 * @param ticket the ticket to count; not null
+	 * @return the number of the given ticket the player holds
+	 * @throws IllegalArgumentException if the player is not in the game
+	 */
+	public int tickets(Colour colour, Ticket ticket) {
+		return tickets[indexOf(colour)][ticket.ordinal()];
+	}
+
+	/**
+	 * Counts the moves of a player as if it were their turn in this position,
+	 * without generating them. For the current player this is the size of
+	 * {@link #validMoves()}.
+	 *
+	 * @param colour the colour of the player; not null
+	 * @return the number of valid moves, 1 for a detective who must pass
+	 * @throws IllegalArgumentException if the player is not in the game
+	 */
+	public int validMoveCount(Colour colour) {
+		int index = indexOf(colour);
+		return rules.countValidMoves(index, locations, tickets[index], round);
+	}
+
+	private int indexOf(Colour colour) {
+		int index = rules.indexOf(requireNonNull(colour));
+		if (index < 0) throw new IllegalArgumentException(colour + " is not playing");
+		return index;
+	}
+
+	@Override
+	public List<Colour> getPlayers() {
+		return rules.colours;
+	}
+
+	@Override
+	public Set<Colour> getWinningPlayers() {
+		return rules.winningPlayers(locations, tickets, current, round, mrXCornered());
+	}
+
+	@Override
+	public Optional<Integer> getPlayerLocation(Colour colour) {
+		if (colour == BLACK) return Optional.of(mrXLastLocation);
+		int index = rules.indexOf(colour);
+		return index < 0 ? Optional.empty() : Optional.of(locations[index]);
+	}
+
+	@Override
+	public Optional<Integer> getPlayerTickets(Colour colour, Ticket ticket) {
+		int index = rules.indexOf(colour);
+		return index < 0 ? Optional.empty() : Optional.of(tickets[index][ticket.ordinal()]);
+	}
+
+	private boolean mrXCornered() {
+		return current == 0 && !rules.hasAnyValidMove(current, locations, tickets[current]);
+	}
+
+	@Override
+	public boolean isGameOver() {
+		return rules.mrXCaptured(locations)
+				|| rules.mrXNotCaptured(current, round)
+				|| rules.detectivesStuck(tickets)
+				|| mrXCornered();
+	}
+
+	@Override
+	public Colour getCurrentPlayer() {
+		return rules.colours.get(current);
+	}
+
+	@Override
+	public int getCurrentRound() {
+		return round;
+	}
+
+	@Override
+	public List<Boolean> getRounds() {
+		return rules.rounds;
+	}
+
+	@Override
+	public Graph<Integer, Transport> getGraph() {
+		return rules.graph;
+	}
+
+	@Override
+	public String toString() {
+		return "SearchBoard{ply=" + ply + ", " + toState() + '}';
+	}
+
+}
@@ -127,7 +127,12 @@ public class StandardGame {
 	}
 
 	public static InputStream pngMapAsStream() {
-		return StandardGame.class.getResourceAsStream("map_large.png");
+		return StandardGame.class.getResourceAsStream("/map_large.png");
+	}
+
+	public static InputStream pngTicketAsStream(Ticket ticket) {
+		return StandardGame.class.getResourceAsStream(
+				"/tickets/" + ticket.name().toLowerCase() + ".png");
 	}
 
 	public static final int MAP_OFFSET = 60;
@@ -147,8 +152,18 @@ public class StandardGame {
 		return Collections.unmodifiableMap(map);
 	}
 
-	public static ImmutableGraph<Integer, Transport> standardGraph() throws IOException {
-		return ScotlandYardGraphReader.fromLines(readString("graph.txt"));
+	private static ImmutableGraph<Integer, Transport> standardGraph;
+
+	/**
+	 * @return the standard map, read once and shared so that its index and
+	 *         distance tables are too; never null
+	 * @throws IOException if the map cannot be read
+	 */
+	public static synchronized ImmutableGraph<Integer, Transport> standardGraph()
+			throws IOException {
+		if (standardGraph == null)
+			standardGraph = ScotlandYardGraphReader.fromLines(readString("graph.txt"));
+		return standardGraph;
 	}
 
 	private static List<String> readString(String resource) throws IOException {
@@ -54,7 +54,8 @@ public class TicketMove extends Move {
 
 	@Override
 	public int hashCode() {
-		return Objects.hash(super.hashCode(), ticket, destination);
+		// same value as Objects.hash(super.hashCode(), ticket, destination) without boxing
+		return (31 * (31 + super.hashCode()) + Objects.hashCode(ticket)) * 31 + destination;
 	}
 
 	@Override
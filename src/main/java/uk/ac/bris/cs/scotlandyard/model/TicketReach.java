@@ -0,0 +1,120 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.BUS;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.UNDERGROUND;
+
+import java.util.List;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+
+/**
+ * The nodes one edge away from every node of a map, per ticket, as bitsets of
+ * {@code long} words: a ticket reaches the nodes its transport connects and
+ * SECRET reaches every neighbour, ferries included. Rows are sets, so nodes
+ * connected by more than one edge of a ticket appear once.
+ * <br>
+ * Rows are built once per {@link AdjacencyIndex} and shared by everything
+ * that moves players over it, see {@link #of(AdjacencyIndex)}. They never
+ * change, so they may be read from any thread.
+ */
+public final class TicketReach {
+
+	/**
+	 * The tickets that move a player, DOUBLE is not one of them
+	 */
+	public static final List<Ticket> TRAVEL = List.of(TAXI, BUS, UNDERGROUND, SECRET);
+
+	// keyed by identity, see ScotlandYardGraphReader.indexOf for shared indices
+	private static final LoadingCache<AdjacencyIndex<Transport>, TicketReach> REACH =
+			CacheBuilder.newBuilder().weakKeys().build(CacheLoader.from(TicketReach::new));
+
+	private final int nodes;
+	private final int words;
+	// reach[ticket.ordinal()][node * words + word], null for DOUBLE
+	private final long[][] reach = new long[Ticket.values().length][];
+
+	private TicketReach(AdjacencyIndex<Transport> index) {
+		this.nodes = index.maxNode() + 1;
+		this.words = (nodes + 63) >>> 6;
+		for (Ticket ticket : TRAVEL)
+			reach[ticket.ordinal()] = new long[nodes * words];
+		for (int node = 0; node < nodes; node++) {
+			for (int edge = index.start(node); edge < index.end(node); edge++) {
+				int target = index.target(edge);
+				long bit = 1L << target;
+				reach[Ticket.fromTransport(index.data(edge)).ordinal()][node * words
+						+ (target >>> 6)] |= bit;
+				reach[SECRET.ordinal()][node * words + (target >>> 6)] |= bit;
+			}
+		}
+	}
+
+	/**
+	 * @param index the index of the map; not null
+	 * @return the rows of the index, built on first use; never null
+	 */
+	public static TicketReach of(AdjacencyIndex<Transport> index) {
+		return REACH.getUnchecked(index);
+	}
+
+	/**
+	 * @return the number of bits in a row, one more than the largest node
+	 */
+	public int nodes() {
+		return nodes;
+	}
+
+	/**
+	 * @return the number of {@code long} words in a row
+	 */
+	public int words() {
+		return words;
+	}
+
+	/**
+	 * @param ticket one of {@link #TRAVEL}
+	 * @param node the node moved from, less than {@link #nodes()}
+	 * @param word the word of the row, less than {@link #words()}
+	 * @return the nodes {@code word * 64} to {@code word * 64 + 63} reached
+	 *         from the node with the ticket, one bit each
+	 */
+	public long word(Ticket ticket, int node, int word) {
+		return reach[ticket.ordinal()][node * words + word];
+	}
+
+	/**
+	 * @param ticket one of {@link #TRAVEL}
+	 * @param node the node moved from, less than {@link #nodes()}
+	 * @param target the node moved to, less than {@link #nodes()}
+	 * @return true if the ticket takes a player from the node to the target
+	 */
+	public boolean contains(Ticket ticket, int node, int target) {
+		return (reach[ticket.ordinal()][node * words + (target >>> 6)] & 1L << target) != 0;
+	}
+
+	/**
+	 * Adds the nodes reached from a node with a ticket to a bitset
+	 *
+	 * @param ticket one of {@link #TRAVEL}
+	 * @param node the node moved from, less than {@link #nodes()}
+	 * @param into the bitset, {@link #words()} long; not null
+	 */
+	public void or(Ticket ticket, int node, long[] into) {
+		long[] row = reach[ticket.ordinal()];
+		int offset = node * words;
+		for (int word = 0; word < words; word++)
+			into[word] |= row[offset + word];
+	}
+
+	@Override
+	public String toString() {
+		return "TicketReach{nodes=" + (nodes - 1) + '}';
+	}
+
+}
@@ -0,0 +1,54 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+/**
+ * A move the game is waiting for, as returned by
+ * {@link ScotlandYardModel#nextTurn()}
+ */
+public final class Turn {
+
+	private final Colour colour;
+	private final Player player;
+	private final int location;
+	private final MoveSet moves;
+
+	Turn(Colour colour, Player player, int location, MoveSet moves) {
+		this.colour = colour;
+		this.player = player;
+		this.location = location;
+		this.moves = moves;
+	}
+
+	/**
+	 * @return the colour of the player to move; never null
+	 */
+	public Colour colour() {
+		return colour;
+	}
+
+	/**
+	 * @return the player configured for the colour; never null
+	 */
+	public Player player() {
+		return player;
+	}
+
+	/**
+	 * @return the true location of the player to move, including MrX
+	 */
+	public int location() {
+		return location;
+	}
+
+	/**
+	 * @return the valid moves of the player; never empty and never null
+	 */
+	public MoveSet moves() {
+		return moves;
+	}
+
+	@Override
+	public String toString() {
+		return "Turn{colour=" + colour + ", location=" + location + ", moves=" + moves.size() + '}';
+	}
+
+}
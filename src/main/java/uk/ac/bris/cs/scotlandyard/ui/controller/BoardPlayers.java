@@ -25,7 +25,7 @@ public class BoardPlayers {
 	public static BoardPlayer resolve(Option<Player> player,
 			Option<String> name,
 			Runnable timeoutCallback) {
-		return player.map(p -> (BoardPlayer) new BoardPlayers.AIBoardPlayer(p, timeoutCallback))
+		return player.map(p -> (BoardPlayer) new BoardPlayers.AIBoardPlayer(p))
 				.getOrElse(new BoardPlayers.HumanBoardPlayer(false, name, timeoutCallback));
 	}
 
@@ -106,15 +106,14 @@ public class BoardPlayers {
 		}
 	}
 
+	// AIs are held to the timeout by the AIPool, which plays a fallback move
 	public static class AIBoardPlayer implements BoardPlayer {
 
 		private static final String WAIT_AI = "wait_ai";
 		private final Player player;
-		private final Runnable timeoutCallback;
 
-		AIBoardPlayer(Player player, Runnable timeoutCallback) {
+		AIBoardPlayer(Player player) {
 			this.player = player;
-			this.timeoutCallback = timeoutCallback;
 		}
 
 		@Override
@@ -124,16 +123,11 @@ public class BoardPlayers {
 				int location,
 				Set<Move> moves,
 				Consumer<Move> callback) {
-			Duration timeout = Duration
-					.millis(board.configuration().timeoutProperty().get().toMillis());
 			Notifications notifications = board.notifications();
-			Notification timed = new NotificationBuilder(format(
+			Notification waiting = new NotificationBuilder(format(
 					"Waiting for AI for %s to select a move", moves.iterator().next().colour()))
-							.create(timeout, () -> {
-								notifications.dismissAll();
-								timeoutCallback.run();
-							});
-			notifications.show(WAIT_AI, timed);
+							.create();
+			notifications.show(WAIT_AI, waiting);
 			player.makeMove(view, location, moves, move -> {
 				Platform.runLater(() -> {
 					notifications.dismiss(WAIT_AI);
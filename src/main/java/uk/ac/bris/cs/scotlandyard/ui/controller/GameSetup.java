@@ -61,7 +61,6 @@ import uk.ac.bris.cs.fxkit.Controller;
 import uk.ac.bris.cs.fxkit.LambdaStringConverter;
 import uk.ac.bris.cs.fxkit.SpinnerTableCell;
 import uk.ac.bris.cs.fxkit.interpolator.DecelerateInterpolator;
-import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.ai.AI;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
@@ -319,7 +318,7 @@ public final class GameSetup implements Controller {
 		return new ModelProperty(Duration.ofSeconds(Math.round(timeout.getValue())),
 				roundConfig.getChildren().stream().map(ToggleButton.class::cast)
 						.map(ToggleButton::isSelected).collect(Collectors.toList()),
-				playerEntries, new ImmutableGraph<>(manager.getGraph()));
+				playerEntries, manager.getGraph());
 	}
 
 	ReadOnlyBooleanProperty readyProperty() {
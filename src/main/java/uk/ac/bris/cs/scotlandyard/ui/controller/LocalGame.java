@@ -25,6 +25,7 @@ import javafx.stage.Stage;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.ResourceManager.ImageResource;
 import uk.ac.bris.cs.scotlandyard.ai.AIPool;
+import uk.ac.bris.cs.scotlandyard.ai.AIPool.Execution;
 import uk.ac.bris.cs.scotlandyard.harness.CodeGenRecorder;
 import uk.ac.bris.cs.scotlandyard.harness.CodeGenRecorder.CodeGen;
 import uk.ac.bris.cs.scotlandyard.harness.GameModelSequencePUMLCodeGen;
@@ -103,15 +104,18 @@ public final class LocalGame extends BaseGame implements Spectator {
 		private final ModelProperty setup;
 		private final ScotlandYardGame model;
 		private final List<GameControl> controls;
-		private final AIPool<Side> pool = new AIPool<>(
-				createVisualiserSurface(),
-				Utils::handleFatalException);
+		private final AIPool<Side> pool;
 		private final CodeGenRecorder recorder = new CodeGenRecorder(ImmutableList.of(
 				new TestHarnessPlayOutTestCodeGen(),
 				new GameModelSequencePUMLCodeGen()));
 
 		Game(ModelProperty setup) throws Exception {
 			this.setup = setup;
+			this.pool = new AIPool<>(
+					createVisualiserSurface(),
+					Utils::handleFatalException,
+					Execution.PLATFORM,
+					setup.timeoutProperty().get());
 
 			List<PlayerProperty> joining = setup.players();
 
@@ -13,7 +13,6 @@ import javafx.beans.property.SimpleObjectProperty;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import uk.ac.bris.cs.gamekit.graph.Graph;
-import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
 import uk.ac.bris.cs.scotlandyard.ResourceManager;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.StandardGame;
@@ -38,7 +37,7 @@ public class ModelProperty implements ModelConfiguration {
 	public static ModelProperty createDefault(ResourceManager manager) {
 		return new ModelProperty(Duration.ofMinutes(1), StandardGame.ROUNDS,
 				of(Colour.values()).map(PlayerProperty::new).collect(toList()),
-				new ImmutableGraph<>(manager.getGraph()));
+				manager.getGraph());
 	}
 
 	@Override
@@ -0,0 +1,24 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.runner.RunWith;
+import org.junit.runners.Suite;
+
+import uk.ac.bris.cs.scotlandyard.ai.mcts.MonteCarloAITest;
+import uk.ac.bris.cs.scotlandyard.headless.BatchRunnerTest;
+import uk.ac.bris.cs.scotlandyard.headless.HeadlessResourcesTest;
+
+/**
+ * Includes all tests for the AI support and the headless runner
+ */
+@RunWith(Suite.class)
+@Suite.SuiteClasses({
+		DeadlinePlayerTest.class,
+		TranspositionTableTest.class,
+		VirtualThreadsTest.class,
+		MrXTrackerTest.class,
+		MrXDistributionTest.class,
+		ReachabilityTest.class,
+		MonteCarloAITest.class,
+		BatchRunnerTest.class,
+		HeadlessResourcesTest.class})
+public class AITest {}
@@ -0,0 +1,189 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.AfterClass;
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableSet;
+
+import uk.ac.bris.cs.gamekit.timer.StandardTimer;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.BUS;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests {@link DeadlinePlayer}, {@link AnytimePlayer} and {@link Deadline}
+ */
+public class DeadlinePlayerTest {
+
+	private static final ExecutorService EXECUTOR = VirtualThreads.newExecutor();
+	private static final Set<Move> MOVES = ImmutableSet.of(
+			new TicketMove(BLACK, TAXI, 1), new TicketMove(BLACK, BUS, 2));
+	private static final Move CHOSEN = new TicketMove(BLACK, TAXI, 1);
+
+	@AfterClass
+	public static void shutdown() {
+		EXECUTOR.shutdownNow();
+	}
+
+	private static DeadlinePlayer budgeted(Player player, Duration budget,
+			List<Throwable> failures) {
+		return new DeadlinePlayer(player, budget, EXECUTOR, new StandardTimer(), failures::add);
+	}
+
+	@Test
+	public void testMoveWithinBudgetIsPlayed() throws Exception {
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		CompletableFuture<Deadline> seen = new CompletableFuture<>();
+		CompletableFuture<Move> played = new CompletableFuture<>();
+		budgeted((view, location, moves, callback) -> {
+			seen.complete(Deadline.current());
+			callback.accept(CHOSEN);
+		}, Duration.ofSeconds(10), failures).makeMove(null, 5, MOVES, played::complete);
+		assertThat(played.get(10, TimeUnit.SECONDS)).isEqualTo(CHOSEN);
+		assertThat(seen.get().limited()).isTrue();
+		assertThat(seen.get().expired()).isFalse();
+		assertThat(failures).isEmpty();
+	}
+
+	@Test
+	public void testSlowPlayerGetsFallbackAndLateMoveIsIgnored() throws Exception {
+		List<Move> played = new CopyOnWriteArrayList<>();
+		CountDownLatch fallback = new CountDownLatch(1);
+		CountDownLatch late = new CountDownLatch(1);
+		budgeted((view, location, moves, callback) -> {
+			try {
+				fallback.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			assertThat(Deadline.current().expired()).isTrue();
+			callback.accept(CHOSEN);
+			late.countDown();
+		}, Duration.ofMillis(20), new CopyOnWriteArrayList<>()).makeMove(null, 5, MOVES, move -> {
+			played.add(move);
+			fallback.countDown();
+		});
+		assertThat(fallback.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(late.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(played).hasSize(1);
+		assertThat(MOVES).contains(played.get(0));
+	}
+
+	@Test
+	public void testFallbackIsPlayedOnExecutorAndItsFailureReported() throws Exception {
+		ExecutorService executor = Executors.newSingleThreadExecutor(
+				runnable -> new Thread(runnable, "decisions"));
+		CompletableFuture<String> thread = new CompletableFuture<>();
+		CompletableFuture<Throwable> failure = new CompletableFuture<>();
+		try {
+			new DeadlinePlayer((view, location, moves, callback) -> {}, Duration.ofMillis(20),
+					executor, new StandardTimer(), e -> {}).makeMove(null, 5, MOVES, move -> {
+						thread.complete(Thread.currentThread().getName());
+						throw new IllegalStateException("Failed to play " + move);
+					}, failure::complete);
+			assertThat(thread.get(10, TimeUnit.SECONDS)).isEqualTo("decisions");
+			assertThat(failure.get(10, TimeUnit.SECONDS))
+					.isInstanceOf(IllegalStateException.class);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void testUnlimitedPlayerIsNeverTimedOut() throws Exception {
+		CompletableFuture<Deadline> seen = new CompletableFuture<>();
+		CompletableFuture<Move> played = new CompletableFuture<>();
+		budgeted((view, location, moves, callback) -> {
+			seen.complete(Deadline.current());
+			callback.accept(CHOSEN);
+		}, null, new CopyOnWriteArrayList<>()).makeMove(null, 5, MOVES, played::complete);
+		assertThat(played.get(10, TimeUnit.SECONDS)).isEqualTo(CHOSEN);
+		assertThat(seen.get()).isSameAs(Deadline.none());
+		assertThat(Deadline.none().remainingNanos()).isEqualTo(Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testThrowingPlayerIsReported() throws Exception {
+		List<Throwable> failures = new CopyOnWriteArrayList<>();
+		CompletableFuture<Move> played = new CompletableFuture<>();
+		budgeted((view, location, moves, callback) -> {
+			throw new IllegalStateException("Failed");
+		}, Duration.ofMillis(20), failures).makeMove(null, 5, MOVES, played::complete);
+		// the fallback still keeps the game going
+		assertThat(MOVES).contains(played.get(10, TimeUnit.SECONDS));
+		assertThat(failures).hasSize(1);
+		assertThat(failures.get(0)).isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void testAnytimePlayerLatestCandidateIsPlayedAtExpiry() throws Exception {
+		List<Move> played = new CopyOnWriteArrayList<>();
+		CountDownLatch searched = new CountDownLatch(1);
+		AnytimePlayer player = (view, location, moves, candidates) -> {
+			candidates.offer(new TicketMove(BLACK, BUS, 2), 0);
+			candidates.offer(CHOSEN, 1);
+			while (!Deadline.current().expired()) Thread.onSpinWait();
+			searched.countDown();
+		};
+		CountDownLatch done = new CountDownLatch(1);
+		budgeted(player, Duration.ofMillis(20), new CopyOnWriteArrayList<>())
+				.makeMove(null, 5, MOVES, move -> {
+					played.add(move);
+					done.countDown();
+				});
+		assertThat(done.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(searched.await(10, TimeUnit.SECONDS)).isTrue();
+		assertThat(played).containsExactly(CHOSEN);
+	}
+
+	@Test
+	public void testAnytimePlayerFinishingEarlyIsPlayedImmediately() throws Exception {
+		CompletableFuture<Move> played = new CompletableFuture<>();
+		AnytimePlayer player = (view, location, moves, candidates) -> candidates.offer(CHOSEN, 1);
+		budgeted(player, Duration.ofHours(1), new CopyOnWriteArrayList<>())
+				.makeMove(null, 5, MOVES, played::complete);
+		assertThat(played.get(10, TimeUnit.SECONDS)).isEqualTo(CHOSEN);
+
+		CompletableFuture<Move> direct = new CompletableFuture<>();
+		player.makeMove(null, 5, MOVES, direct::complete);
+		assertThat(direct.get()).isEqualTo(CHOSEN);
+	}
+
+	@Test
+	public void testAnytimePlayerInvalidCandidateIsReported() throws Exception {
+		CompletableFuture<Throwable> failure = new CompletableFuture<>();
+		CompletableFuture<Move> played = new CompletableFuture<>();
+		AnytimePlayer player = (view, location, moves, candidates) ->
+				candidates.offer(new TicketMove(BLACK, TAXI, 3), 1);
+		new DeadlinePlayer(player, Duration.ofMillis(20), EXECUTOR, new StandardTimer(),
+				failure::complete).makeMove(null, 5, MOVES, played::complete);
+		assertThat(MOVES).contains(played.get(10, TimeUnit.SECONDS));
+		assertThat(failure.get(10, TimeUnit.SECONDS))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testCurrentIsOnlySetWithin() {
+		Deadline deadline = Deadline.after(Duration.ofMinutes(1));
+		assertThat(Deadline.current()).isSameAs(Deadline.none());
+		deadline.runWithin(() -> assertThat(Deadline.current()).isSameAs(deadline));
+		assertThat(Deadline.current()).isSameAs(Deadline.none());
+		assertThat(Deadline.after(Duration.ZERO).expired()).isTrue();
+	}
+
+}
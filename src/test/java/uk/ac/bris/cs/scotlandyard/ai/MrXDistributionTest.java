@@ -0,0 +1,116 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Random;
+
+import uk.ac.bris.cs.scotlandyard.ai.MrXDistribution.Prior;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+import uk.ac.bris.cs.scotlandyard.model.Turn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.pulledGame;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests {@link MrXDistribution}
+ */
+public class MrXDistributionTest {
+
+	private static double sum(double[] probabilities) {
+		double sum = 0;
+		for (double p : probabilities)
+			sum += p;
+		return sum;
+	}
+
+	// reveals MrX at 46, moves RED to 34 and BLUE away, then MrX uses a SECRET
+	private static MrXDistribution afterSecret(Prior prior) throws IOException {
+		ScotlandYardModel game = pulledGame(rounds(true, false, false));
+		MrXDistribution distribution = new MrXDistribution(game, prior);
+		game.registerSpectator(distribution);
+		game.play(new TicketMove(BLACK, TAXI, 46));
+		assertThat(distribution.probability(46)).isEqualTo(1d);
+		game.play(new TicketMove(RED, TAXI, 34));
+		game.play(game.nextTurn().get().moves().iterator().next());
+		game.play(new TicketMove(BLACK, SECRET, 47));
+		return distribution;
+	}
+
+	@Test
+	public void testStartsUniformButDetectives() throws Exception {
+		ScotlandYardModel game = pulledGame(rounds(false, false));
+		MrXDistribution distribution = new MrXDistribution(game, Prior.PATHS);
+		int free = game.getGraph().getNodes().size() - 2;
+		assertThat(distribution.probability(45)).isCloseTo(1d / free, within(1e-12));
+		assertThat(distribution.probability(47)).isZero();
+		assertThat(distribution.probability(0)).isZero();
+		assertThat(distribution.probability(-1)).isZero();
+		assertThat(sum(distribution.toArray())).isCloseTo(1, within(1e-9));
+	}
+
+	@Test
+	public void testPathsWeighNodesByRoutes() throws Exception {
+		MrXDistribution distribution = afterSecret(Prior.PATHS);
+		// 12 routes leave 46, the bus to 34 is blocked by RED and two lead to 1
+		assertThat(distribution.probability(1)).isCloseTo(2d / 11, within(1e-12));
+		assertThat(distribution.probability(47)).isCloseTo(1d / 11, within(1e-12));
+		assertThat(distribution.probability(34)).isZero();
+		assertThat(distribution.mostLikely()).isEqualTo(1);
+		assertThat(sum(distribution.toArray())).isCloseTo(1, within(1e-9));
+	}
+
+	@Test
+	public void testTransportPriorWeighsSecretMoves() throws Exception {
+		MrXDistribution distribution = afterSecret(
+				Prior.byTransport(Collections.singletonMap(Transport.TAXI, 1d)));
+		// only the taxi routes from 46 to 33, 45, 47 and 61 keep any mass
+		for (int node : new int[] { 33, 45, 47, 61 })
+			assertThat(distribution.probability(node)).isCloseTo(0.25, within(1e-12));
+		assertThat(distribution.probability(1)).isZero();
+		assertThat(distribution.sample(new Random(42))).isIn(33, 45, 47, 61);
+	}
+
+	@Test
+	public void testAgreesWithTracker() throws Exception {
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			ScotlandYardModel game = pulledGame(StandardGame.ROUNDS);
+			MrXTracker tracker = new MrXTracker(game);
+			MrXDistribution distribution = new MrXDistribution(game, Prior.WALK);
+			game.registerSpectator(tracker);
+			game.registerSpectator(distribution);
+			for (Turn turn = game.nextTurn().orElse(null); turn != null;
+					turn = game.nextTurn().orElse(null)) {
+				game.play(new ArrayList<>(turn.moves()).get(random.nextInt(turn.moves().size())));
+				if (game.isGameOver()) break;
+				assertThat(distribution.probability(game.snapshot().location(BLACK))).isPositive();
+				double[] probabilities = distribution.toArray();
+				assertThat(sum(probabilities)).isCloseTo(1, within(1e-9));
+				for (int node = 0; node < probabilities.length; node++)
+					if (probabilities[node] > 0) assertThat(tracker.contains(node)).isTrue();
+			}
+		}
+	}
+
+	@Test
+	public void testNegativeWeightThrows() throws Exception {
+		ScotlandYardModel game = pulledGame(rounds(false));
+		assertThatThrownBy(() -> new MrXDistribution(game, (transport, choices) -> -1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,105 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI.VisualiserType;
+import uk.ac.bris.cs.scotlandyard.headless.BatchRunner;
+import uk.ac.bris.cs.scotlandyard.headless.RandomPlayerFactory;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.Turn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.pulledGame;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests {@link MrXTracker}
+ */
+public class MrXTrackerTest {
+
+	/**
+	 * Records whether a tracker was registered for the group
+	 */
+	public static class TrackedPlayerFactory implements PlayerFactory {
+
+		static final AtomicBoolean TRACKED = new AtomicBoolean();
+
+		@Override
+		public void ready(Visualiser visualiser, ResourceProvider provider) {
+			TRACKED.set(MrXTracker.shared(provider).isPresent());
+		}
+
+		@Override
+		public Player createPlayer(Colour colour) {
+			return new RandomPlayerFactory().createPlayer(colour);
+		}
+
+	}
+
+	@Test
+	public void testStartsAnywhereButDetectives() throws Exception {
+		ScotlandYardModel game = pulledGame(rounds(false, false));
+		MrXTracker tracker = new MrXTracker(game);
+		assertThat(tracker.count()).isEqualTo(game.getGraph().getNodes().size() - 2);
+		assertThat(tracker.contains(45)).isTrue();
+		assertThat(tracker.contains(47)).isFalse();
+		assertThat(tracker.contains(0)).isFalse();
+		assertThat(tracker.locations()).hasSize(tracker.count());
+		assertThat(tracker.toBitSet().cardinality()).isEqualTo(tracker.count());
+	}
+
+	@Test
+	public void testRevealAndTicketsNarrowCandidates() throws Exception {
+		ScotlandYardModel game = pulledGame(rounds(true, false, false));
+		MrXTracker tracker = new MrXTracker(game);
+		game.registerSpectator(tracker);
+		game.play(new TicketMove(BLACK, TAXI, 46));
+		assertThat(tracker.locations()).containsExactly(46);
+		game.play(new TicketMove(RED, TAXI, 34));
+		game.play(game.nextTurn().get().moves().iterator().next());
+		game.play(new TicketMove(BLACK, TAXI, 47));
+		// taxi routes from 46 lead to 33, 45, 47 and 61
+		assertThat(tracker.locations()).containsExactly(33, 45, 47, 61);
+		game.play(new TicketMove(RED, TAXI, 47));
+		assertThat(game.isGameOver()).isTrue();
+		assertThat(tracker.locations()).containsExactly(33, 45, 61);
+	}
+
+	@Test
+	public void testAlwaysContainsMrX() throws Exception {
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			ScotlandYardModel game = pulledGame(StandardGame.ROUNDS);
+			MrXTracker tracker = new MrXTracker(game);
+			game.registerSpectator(tracker);
+			for (Turn turn = game.nextTurn().orElse(null); turn != null;
+					turn = game.nextTurn().orElse(null)) {
+				game.play(new ArrayList<>(turn.moves()).get(random.nextInt(turn.moves().size())));
+				int mrX = game.snapshot().location(BLACK);
+				if (!game.isGameOver()) assertThat(tracker.contains(mrX)).isTrue();
+				if (turn.colour().isMrX() && game.getRounds().get(game.getCurrentRound() - 1))
+					assertThat(tracker.locations()).containsExactly(mrX);
+			}
+		}
+	}
+
+	@Test
+	public void testRegisteredForHeadlessGames() throws InterruptedException {
+		AI tracked = AI.fromName("Tracked", VisualiserType.NONE, TrackedPlayerFactory.class);
+		TrackedPlayerFactory.TRACKED.set(false);
+		new BatchRunner.Builder(tracked, tracked).games(1).threads(1).build().run();
+		assertThat(TrackedPlayerFactory.TRACKED.get()).isTrue();
+	}
+
+}
@@ -0,0 +1,142 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import uk.ac.bris.cs.gamekit.graph.Edge;
+import uk.ac.bris.cs.gamekit.graph.Graph;
+import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+import uk.ac.bris.cs.scotlandyard.model.Ticket;
+import uk.ac.bris.cs.scotlandyard.model.Transport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.makeTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.neverPlayer;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+
+/**
+ * Tests {@link Reachability}
+ */
+public class ReachabilityTest {
+
+	private static BitSet nodes(int... nodes) {
+		BitSet set = new BitSet();
+		for (int node : nodes)
+			set.set(node);
+		return set;
+	}
+
+	private static Map<Ticket, Integer> tickets(int taxi, int bus, int underground, int secret) {
+		Map<Ticket, Integer> tickets = new EnumMap<>(Ticket.class);
+		tickets.put(Ticket.TAXI, taxi);
+		tickets.put(Ticket.BUS, bus);
+		tickets.put(Ticket.UNDERGROUND, underground);
+		tickets.put(Ticket.SECRET, secret);
+		return tickets;
+	}
+
+	// every path of the given length, spending tickets one at a time
+	private static void paths(Graph<Integer, Transport> graph, int node, int[] tickets,
+			int moves, Set<Integer> blocked, BitSet reached) {
+		if (moves == 0) {
+			reached.set(node);
+			return;
+		}
+		for (Edge<Integer, Transport> edge : graph.getEdgesFrom(graph.getNode(node))) {
+			int target = edge.destination().value();
+			if (blocked.contains(target)) continue;
+			Ticket ticket = Ticket.fromTransport(edge.data());
+			// ferries take SECRET tickets only
+			int[] usable = ticket == Ticket.SECRET ? new int[] { ticket.ordinal() }
+					: new int[] { ticket.ordinal(), Ticket.SECRET.ordinal() };
+			for (int used : usable) {
+				if (tickets[used] == 0) continue;
+				tickets[used]--;
+				paths(graph, target, tickets, moves - 1, blocked, reached);
+				tickets[used]++;
+			}
+		}
+	}
+
+	@Test
+	public void testTicketsLimitTransport() throws IOException {
+		Graph<Integer, Transport> graph = StandardGame.standardGraph();
+		Reachability tube = new Reachability(graph, 1, tickets(0, 0, 1, 0),
+				Collections.emptySet());
+		assertThat(tube.exactly(0)).isEqualTo(nodes(1));
+		assertThat(tube.exactly(1)).isEqualTo(nodes(46));
+		assertThat(tube.exactly(2)).isEqualTo(nodes());
+		assertThat(tube.exactly(5)).isEqualTo(nodes());
+		assertThat(tube.within(5)).isEqualTo(nodes(1, 46));
+		assertThat(tube.movesTo(46, 3)).isEqualTo(1);
+		assertThat(tube.movesTo(8, 3)).isEqualTo(-1);
+
+		Reachability road = new Reachability(graph, 1, tickets(1, 1, 0, 0),
+				Collections.singleton(58));
+		assertThat(road.within(1)).isEqualTo(nodes(1, 8, 9, 46));
+		assertThat(road.canReach(58, 2)).isFalse();
+		assertThat(road.canReach(46, 1)).isTrue();
+		assertThat(road.canReach(0, 1)).isFalse();
+	}
+
+	@Test
+	public void testMatchesPathEnumeration() throws IOException {
+		Graph<Integer, Transport> graph = StandardGame.standardGraph();
+		Random random = new Random(42);
+		for (int i = 0; i < 20; i++) {
+			int location = StandardGame.MRX_LOCATIONS.get(random.nextInt(
+					StandardGame.MRX_LOCATIONS.size()));
+			int[] counts = new int[Ticket.values().length];
+			counts[Ticket.TAXI.ordinal()] = random.nextInt(3);
+			counts[Ticket.BUS.ordinal()] = random.nextInt(3);
+			counts[Ticket.UNDERGROUND.ordinal()] = random.nextInt(2);
+			counts[Ticket.SECRET.ordinal()] = random.nextInt(2);
+			List<Integer> detectives = StandardGame.DETECTIVE_LOCATIONS;
+			Set<Integer> blocked = Collections.singleton(detectives.get(i % detectives.size()));
+			Reachability reachability = new Reachability(graph, location,
+					tickets(counts[0], counts[1], counts[2], counts[Ticket.SECRET.ordinal()]),
+					blocked);
+			BitSet within = new BitSet();
+			for (int moves = 0; moves <= 4; moves++) {
+				BitSet expected = new BitSet();
+				paths(graph, location, counts, moves, blocked, expected);
+				within.or(expected);
+				assertThat(reachability.exactly(moves)).isEqualTo(expected);
+				assertThat(reachability.within(moves)).isEqualTo(within);
+			}
+		}
+	}
+
+	@Test
+	public void testFromView() throws IOException {
+		ScotlandYardModel game = new ScotlandYardModel(rounds(false),
+				StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).using(neverPlayer()).at(45)
+						.with(mrXTickets()).build(),
+				new PlayerConfiguration.Builder(RED).using(neverPlayer()).at(1)
+						.with(makeTickets(0, 0, 1, 0, 0)).build(),
+				new PlayerConfiguration.Builder(BLUE).using(neverPlayer()).at(46)
+						.with(makeTickets(1, 0, 0, 0, 0)).build());
+		assertThat(Reachability.of(game, RED, 1).within(2)).isEqualTo(nodes(1));
+		assertThat(Reachability.of(game, BLUE, 46).exactly(1)).isEqualTo(nodes(33, 45, 47, 61));
+		assertThat(Reachability.of(game, BLACK, 45).exactly(1).get(46)).isFalse();
+		assertThatThrownBy(() -> Reachability.of(game, BLUE, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,138 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.ai.TranspositionTable.EXACT;
+import static uk.ac.bris.cs.scotlandyard.ai.TranspositionTable.LOWER;
+import static uk.ac.bris.cs.scotlandyard.ai.TranspositionTable.UPPER;
+
+/**
+ * Tests {@link TranspositionTable}
+ */
+public class TranspositionTableTest {
+
+	@Test
+	public void testCapacityIsRoundedUpToPowerOfTwo() {
+		assertThat(new TranspositionTable(1).capacity()).isEqualTo(1);
+		assertThat(new TranspositionTable(1000).capacity()).isEqualTo(1024);
+		assertThat(new TranspositionTable(1024).capacity()).isEqualTo(1024);
+	}
+
+	@Test
+	public void testInvalidArgumentsShouldThrow() {
+		assertThatThrownBy(() -> new TranspositionTable(0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new TranspositionTable((1 << 26) + 1))
+				.isInstanceOf(IllegalArgumentException.class);
+		TranspositionTable table = new TranspositionTable(16);
+		assertThatThrownBy(() -> table.store(1, -1, 0, EXACT, -1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> table.store(1, 0x10000, 0, EXACT, -1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> table.store(1, 0, 0, 3, -1))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testStoredEntryCanBeProbed() {
+		TranspositionTable table = new TranspositionTable(64);
+		TranspositionTable.Hit hit = new TranspositionTable.Hit();
+		table.store(0x1234_5678_9ABC_DEF0L, 7, -42, LOWER, 99L);
+		assertThat(table.probe(0x1234_5678_9ABC_DEF0L, hit)).isTrue();
+		assertThat(hit.move()).isEqualTo(99L);
+		assertThat(hit.score()).isEqualTo(-42);
+		assertThat(hit.depth()).isEqualTo(7);
+		assertThat(hit.bound()).isEqualTo(LOWER);
+
+		table.store(5, 0xFFFF, Integer.MIN_VALUE, UPPER, -1);
+		assertThat(table.probe(5, hit)).isTrue();
+		assertThat(hit.move()).isEqualTo(-1L);
+		assertThat(hit.score()).isEqualTo(Integer.MIN_VALUE);
+		assertThat(hit.depth()).isEqualTo(0xFFFF);
+		assertThat(hit.bound()).isEqualTo(UPPER);
+	}
+
+	@Test
+	public void testEmptyOrOtherPositionIsMiss() {
+		TranspositionTable table = new TranspositionTable(1);
+		TranspositionTable.Hit hit = new TranspositionTable.Hit();
+		assertThat(table.probe(0, hit)).isFalse();
+		table.store(1, 3, 10, EXACT, 2);
+		assertThat(table.probe(2, hit)).isFalse();
+		table.clear();
+		assertThat(table.probe(1, hit)).isFalse();
+	}
+
+	@Test
+	public void testDeeperEntryIsKeptWithinSearch() {
+		// a single slot so every position collides
+		TranspositionTable table = new TranspositionTable(1);
+		TranspositionTable.Hit hit = new TranspositionTable.Hit();
+		table.store(1, 5, 10, EXACT, 1);
+		table.store(2, 4, 20, EXACT, 2);
+		assertThat(table.probe(2, hit)).isFalse();
+		assertThat(table.probe(1, hit)).isTrue();
+
+		// the same position is always replaced, even by a shallower search
+		table.store(1, 2, 30, EXACT, 3);
+		assertThat(table.probe(1, hit)).isTrue();
+		assertThat(hit.score()).isEqualTo(30);
+
+		table.store(2, 2, 40, EXACT, 4);
+		assertThat(table.probe(2, hit)).isTrue();
+		assertThat(table.probe(1, hit)).isFalse();
+	}
+
+	@Test
+	public void testOlderEntryIsReplacedAfterNewSearch() {
+		TranspositionTable table = new TranspositionTable(1);
+		TranspositionTable.Hit hit = new TranspositionTable.Hit();
+		table.store(1, 50, 10, EXACT, 1);
+		table.newSearch();
+		assertThat(table.probe(1, hit)).isTrue();
+		table.store(2, 1, 20, EXACT, 2);
+		assertThat(table.probe(2, hit)).isTrue();
+		assertThat(hit.score()).isEqualTo(20);
+	}
+
+	@Test
+	public void testConcurrentStoresNeverProbeTornEntries() throws InterruptedException {
+		// the move and score are derived from the hash, a torn entry that
+		// matched its key would read back the values of a different position
+		TranspositionTable table = new TranspositionTable(8);
+		List<Thread> threads = new ArrayList<>();
+		List<Throwable> failures = new ArrayList<>();
+		for (int t = 0; t < 4; t++) {
+			Random random = new Random(t);
+			threads.add(new Thread(() -> {
+				TranspositionTable.Hit hit = new TranspositionTable.Hit();
+				try {
+					for (int i = 0; i < 200_000; i++) {
+						long hash = random.nextInt(64) * 0x9E3779B97F4A7C15L;
+						if (random.nextBoolean()) {
+							table.store(hash, (int) (hash >>> 48), (int) hash, EXACT, ~hash);
+						} else if (table.probe(hash, hit)) {
+							assertThat(hit.move()).isEqualTo(~hash);
+							assertThat(hit.score()).isEqualTo((int) hash);
+							assertThat(hit.depth()).isEqualTo((int) (hash >>> 48));
+						}
+					}
+				} catch (Throwable e) {
+					synchronized (failures) {
+						failures.add(e);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) thread.start();
+		for (Thread thread : threads) thread.join();
+		assertThat(failures).isEmpty();
+	}
+
+}
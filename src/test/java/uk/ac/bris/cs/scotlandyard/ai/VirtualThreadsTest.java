@@ -0,0 +1,58 @@
+package uk.ac.bris.cs.scotlandyard.ai;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests {@link VirtualThreads}
+ */
+public class VirtualThreadsTest {
+
+	private static final int TASKS = 1000;
+
+	@Test
+	public void testBlockingTasksDoNotStarveEachOther() throws InterruptedException {
+		// every task waits for all others to start, which only finishes if
+		// they all run at the same time
+		ExecutorService executor = VirtualThreads.newExecutor();
+		CountDownLatch started = new CountDownLatch(TASKS);
+		CountDownLatch finished = new CountDownLatch(TASKS);
+		for (int i = 0; i < TASKS; i++) {
+			executor.execute(() -> {
+				started.countDown();
+				try {
+					if (started.await(30, TimeUnit.SECONDS)) finished.countDown();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			});
+		}
+		assertThat(finished.await(30, TimeUnit.SECONDS)).isTrue();
+		executor.shutdown();
+		assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+	@Test
+	public void testShutdownNowInterruptsRunningTasks() throws InterruptedException {
+		ExecutorService executor = VirtualThreads.newExecutor();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch interrupted = new CountDownLatch(1);
+		executor.execute(() -> {
+			started.countDown();
+			try {
+				Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+			} catch (InterruptedException e) {
+				interrupted.countDown();
+			}
+		});
+		assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+		executor.shutdownNow();
+		assertThat(interrupted.await(10, TimeUnit.SECONDS)).isTrue();
+	}
+
+}
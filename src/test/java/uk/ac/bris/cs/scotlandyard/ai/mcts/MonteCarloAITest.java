@@ -0,0 +1,125 @@
+package uk.ac.bris.cs.scotlandyard.ai.mcts;
+
+import org.junit.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI.VisualiserType;
+import uk.ac.bris.cs.scotlandyard.headless.BatchResult;
+import uk.ac.bris.cs.scotlandyard.headless.BatchRunner;
+import uk.ac.bris.cs.scotlandyard.headless.GameResult;
+import uk.ac.bris.cs.scotlandyard.headless.RandomPlayerFactory;
+import uk.ac.bris.cs.scotlandyard.model.Move;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.TicketMove;
+import uk.ac.bris.cs.scotlandyard.model.Turn;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.pulledGame;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests {@link MonteCarloAI}
+ */
+public class MonteCarloAITest {
+
+	/**
+	 * A small search so games finish quickly
+	 */
+	public static class SmallMonteCarloAI extends MonteCarloAI {
+
+		public SmallMonteCarloAI() {
+			super(2, 100);
+		}
+
+	}
+
+	@Test
+	public void testDetectiveCapturesRevealedMrX() throws Exception {
+		ScotlandYardModel game = pulledGame(rounds(true, false, false));
+		MonteCarloAI ai = new MonteCarloAI(1, 200);
+		ai.createSpectators(game).forEach(game::registerSpectator);
+		game.play(new TicketMove(BLACK, TAXI, 46));
+		Turn turn = game.nextTurn().orElseThrow(AssertionError::new);
+		CompletableFuture<Move> chosen = new CompletableFuture<>();
+		ai.createPlayer(RED).makeMove(game, turn.location(), turn.moves(), chosen::complete);
+		assertThat(chosen.get()).isEqualTo(new TicketMove(RED, TAXI, 46));
+	}
+
+	@Test
+	public void testGuessesFollowTicketsWithoutSharedTracker() throws Exception {
+		ScotlandYardModel hidden = pulledGame(rounds(false, false, false));
+		MonteCarloAI hiddenAI = new MonteCarloAI(1, 100);
+		hiddenAI.createSpectators(hidden).forEach(hidden::registerSpectator);
+		hidden.play(new TicketMove(BLACK, TAXI, 46));
+		int nodes = hidden.getGraph().getNodes().size();
+		// anywhere but where the detectives are
+		assertThat(guesses(hiddenAI)).hasSize(nodes - 2);
+
+		ScotlandYardModel revealed = pulledGame(rounds(true, false, false));
+		MonteCarloAI revealedAI = new MonteCarloAI(1, 100);
+		revealedAI.createSpectators(revealed).forEach(revealed::registerSpectator);
+		revealed.play(new TicketMove(BLACK, TAXI, 46));
+		assertThat(guesses(revealedAI)).containsExactly(46);
+		revealed.play(new TicketMove(RED, TAXI, 34));
+		revealed.play(revealed.nextTurn().get().moves().iterator().next());
+		revealed.play(new TicketMove(BLACK, TAXI, 47));
+		assertThat(guesses(revealedAI)).containsExactly(33, 45, 47, 61);
+	}
+
+	@Test
+	public void testDetectiveWithoutTrackerShouldThrow() {
+		MonteCarloAI ai = new MonteCarloAI(1, 100);
+		assertThat(ai.createPlayer(BLACK)).isNotNull();
+		assertThatThrownBy(() -> ai.createPlayer(RED))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	private static int[] guesses(MonteCarloAI ai) {
+		return ((MonteCarloPlayer) ai.createPlayer(RED)).guesses();
+	}
+
+	@Test
+	public void testPlaysCompleteGamesOnBothSides() throws InterruptedException {
+		AI monteCarlo = AI.fromName("Monte Carlo", VisualiserType.NONE, SmallMonteCarloAI.class);
+		AI random = AI.fromName("Random", VisualiserType.NONE, RandomPlayerFactory.class);
+		BatchResult mrX = new BatchRunner.Builder(monteCarlo, random)
+				.games(2).threads(1).build().run();
+		BatchResult detectives = new BatchRunner.Builder(random, monteCarlo)
+				.games(2).threads(1).build().run();
+		assertThat(mrX.failures()).isEmpty();
+		assertThat(detectives.failures()).isEmpty();
+		assertThat(mrX.completed()).isEqualTo(2);
+		assertThat(detectives.completed()).isEqualTo(2);
+	}
+
+	@Test
+	public void testSameSeedPlaysSameGame() {
+		AI monteCarlo = AI.fromName("Monte Carlo", VisualiserType.NONE, SmallMonteCarloAI.class);
+		BatchRunner runner = new BatchRunner.Builder(monteCarlo, monteCarlo)
+				.rounds(rounds(false, false, true, false, false, false))
+				.detectives(2).build();
+		for (int seed = 0; seed < 4; seed++) {
+			GameResult a = runner.play(seed);
+			GameResult b = runner.play(seed);
+			assertThat(a.failure()).isEmpty();
+			assertThat(a.winners()).isEqualTo(b.winners());
+			assertThat(a.rounds()).isEqualTo(b.rounds());
+			assertThat(a.turns()).isEqualTo(b.turns());
+		}
+	}
+
+	@Test
+	public void testInvalidConfigurationShouldThrow() {
+		assertThatThrownBy(() -> new MonteCarloAI(0, 100))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> new MonteCarloAI(1, 0))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
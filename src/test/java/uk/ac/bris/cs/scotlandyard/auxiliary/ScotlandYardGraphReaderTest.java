@@ -2,14 +2,30 @@ package uk.ac.bris.cs.scotlandyard.auxiliary;
 
 import org.junit.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumSet;
+
+import uk.ac.bris.cs.gamekit.graph.AdjacencyIndex;
+import uk.ac.bris.cs.gamekit.graph.DistanceTable;
+import uk.ac.bris.cs.gamekit.graph.Edge;
 import uk.ac.bris.cs.gamekit.graph.ImmutableGraph;
+import uk.ac.bris.cs.gamekit.graph.UndirectedGraph;
+import uk.ac.bris.cs.scotlandyard.model.GameState;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
 import uk.ac.bris.cs.scotlandyard.model.Transport;
 
 import static java.util.Arrays.*;
 import static java.util.Collections.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.pulledGame;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
 import static uk.ac.bris.cs.scotlandyard.model.ScotlandYardGraphReader.*;
 
 /**
@@ -58,4 +74,118 @@ public class ScotlandYardGraphReaderTest {
 		assertThatThrownBy(() -> fromLines(asList("2 1", "1", "2", "Foo Bar Baz")));
 	}
 
-}
\ No newline at end of file
+	@Test
+	public void testIndexMatchesGraph() {
+		ImmutableGraph<Integer, Transport> graph =
+				fromLines(asList("4 3", "1", "2", "3", "5", "1 2 Taxi", "1 3 Bus", "3 5 Ferry"));
+		AdjacencyIndex<Transport> index = indexOf(graph);
+		assertThat(index.maxNode()).isEqualTo(5);
+		assertThat(index.edgeCount()).isEqualTo(6);
+		assertThat(index.containsNode(4)).isFalse();
+		assertThat(index.degree(4)).isZero();
+		assertThat(index.degree(1)).isEqualTo(2);
+		assertThat(index.target(index.start(1))).isEqualTo(2);
+		assertThat(index.data(index.start(1))).isEqualTo(Transport.TAXI);
+		assertThat(index.target(index.start(1) + 1)).isEqualTo(3);
+		assertThat(index.data(index.start(1) + 1)).isEqualTo(Transport.BUS);
+		assertThat(index.target(index.start(5))).isEqualTo(3);
+		assertThat(index.data(index.start(5))).isEqualTo(Transport.FERRY);
+	}
+
+	@Test
+	public void testIndexIsSharedForImmutableGraph() {
+		ImmutableGraph<Integer, Transport> graph =
+				fromLines(asList("3 1", "1", "2", "3", "1 2 Ferry"));
+		assertThat(indexOf(graph)).isSameAs(indexOf(graph));
+		assertThat(indexOf(new UndirectedGraph<>(graph))).isEqualTo(indexOf(graph));
+	}
+
+	@Test
+	public void testIndexFollowsWrappedMutableGraph() {
+		UndirectedGraph<Integer, Transport> mutable =
+				new UndirectedGraph<>(fromLines(asList("3 1", "1", "2", "3", "1 2 Taxi")));
+		ImmutableGraph<Integer, Transport> graph = new ImmutableGraph<>(mutable);
+		assertThat(indexOf(graph).degree(3)).isZero();
+		mutable.addEdge(new Edge<>(mutable.getNode(2), mutable.getNode(3), Transport.BUS));
+		assertThat(indexOf(graph).degree(3)).isEqualTo(1);
+		assertThat(distancesOf(graph).distance(1, 3)).isEqualTo(2);
+	}
+
+	@Test
+	public void testModelKeepsIndexOfStandardGraph() throws IOException {
+		ScotlandYardModel game = pulledGame(rounds(false, false));
+		assertThat(indexOf(game.getGraph())).isSameAs(indexOf(StandardGame.standardGraph()));
+		assertThat(GameState.of(game, 45).getGraph()).isSameAs(game.getGraph());
+	}
+
+	@Test
+	public void testDistancesPerTransports() {
+		ImmutableGraph<Integer, Transport> graph = fromLines(asList("5 4", "1", "2", "3", "4",
+				"6", "1 2 Taxi", "2 3 Taxi", "1 3 Bus", "3 4 Ferry"));
+		DistanceTable<Transport> distances = distancesOf(graph);
+		int taxi = distances.mask(EnumSet.of(Transport.TAXI));
+		int bus = distances.mask(EnumSet.of(Transport.BUS));
+		assertThat(distances.distance(1, 1)).isZero();
+		assertThat(distances.distance(1, 3)).isEqualTo(1);
+		assertThat(distances.distance(taxi, 1, 3)).isEqualTo(2);
+		assertThat(distances.distance(taxi, 3, 1)).isEqualTo(2);
+		assertThat(distances.distance(bus, 2, 3)).isEqualTo(DistanceTable.UNREACHABLE);
+		assertThat(distances.distance(4, 2)).isEqualTo(2);
+		assertThat(distances.distance(taxi, 4, 2)).isEqualTo(DistanceTable.UNREACHABLE);
+		assertThat(distances.distance(1, 5)).isEqualTo(DistanceTable.UNREACHABLE);
+		assertThat(distances.distance(6, 6)).isZero();
+		assertThat(distances.distance(0, 1, 2)).isEqualTo(DistanceTable.UNREACHABLE);
+		assertThat(distancesOf(graph)).isSameAs(distances);
+	}
+
+	@Test
+	public void testStandardMapDistances() throws IOException {
+		DistanceTable<Transport> distances = distancesOf(StandardGame.standardGraph());
+		int underground = distances.mask(EnumSet.of(Transport.UNDERGROUND));
+		assertThat(distances.distance(46, 47)).isEqualTo(1);
+		assertThat(distances.distance(underground, 1, 46)).isEqualTo(1);
+		assertThat(distances.distance(underground, 46, 47))
+				.isEqualTo(DistanceTable.UNREACHABLE);
+		// a ferry runs between 157 and 194
+		assertThat(distances.distance(distances.mask(EnumSet.of(Transport.FERRY)), 157, 194))
+				.isEqualTo(1);
+		for (int from = 1; from <= 199; from++)
+			for (int to = 1; to <= 199; to++)
+				assertThat(distances.distance(from, to)).isEqualTo(distances.distance(to, from));
+	}
+
+	@Test
+	public void testDistancesRoundTrip() throws IOException {
+		ImmutableGraph<Integer, Transport> graph =
+				fromLines(asList("3 2", "1", "2", "3", "1 2 Taxi", "2 3 Bus"));
+		DistanceTable<Transport> distances = DistanceTable.of(indexOf(graph), Transport.class);
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		distances.write(out);
+		DistanceTable<Transport> read = DistanceTable.read(indexOf(graph), Transport.class,
+				new ByteArrayInputStream(out.toByteArray()));
+		assertThat(read).isNotNull();
+		assertThat(read.distance(1, 3)).isEqualTo(2);
+		ImmutableGraph<Integer, Transport> other =
+				fromLines(asList("3 2", "1", "2", "3", "1 2 Taxi", "2 3 Taxi"));
+		assertThat(DistanceTable.read(indexOf(other), Transport.class,
+				new ByteArrayInputStream(out.toByteArray()))).isNull();
+	}
+
+	@Test
+	public void testDistancesCachedOnDisk() throws IOException {
+		Path file = Files.createTempDirectory("distances").resolve("cache.bin");
+		ImmutableGraph<Integer, Transport> graph =
+				fromLines(asList("3 2", "1", "2", "3", "1 2 Taxi", "2 3 Bus"));
+		DistanceTable<Transport> built = DistanceTable.cached(indexOf(graph), Transport.class, file);
+		assertThat(Files.exists(file)).isTrue();
+		DistanceTable<Transport> read = DistanceTable.cached(indexOf(graph), Transport.class, file);
+		assertThat(read).isNotSameAs(built);
+		assertThat(read.distance(3, 1)).isEqualTo(2);
+		Files.write(file, new byte[] { 1, 2, 3 });
+		assertThat(DistanceTable.cached(indexOf(graph), Transport.class, file).distance(3, 1))
+				.isEqualTo(2);
+		Files.delete(file);
+		Files.delete(file.getParent());
+	}
+
+}
@@ -2,6 +2,7 @@ package uk.ac.bris.cs.scotlandyard.auxiliary;
 
 import com.google.common.collect.ImmutableMap;
 
+import java.io.IOException;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -18,11 +19,14 @@ import uk.ac.bris.cs.scotlandyard.auxiliary.AnonymousMoves.AnonymousTicketMove;
 import uk.ac.bris.cs.scotlandyard.harness.Requirement;
 import uk.ac.bris.cs.scotlandyard.model.Colour;
 import uk.ac.bris.cs.scotlandyard.model.DoubleMove;
+import uk.ac.bris.cs.scotlandyard.model.Move;
 import uk.ac.bris.cs.scotlandyard.model.PassMove;
 import uk.ac.bris.cs.scotlandyard.model.Player;
 import uk.ac.bris.cs.scotlandyard.model.PlayerConfiguration;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardGame;
+import uk.ac.bris.cs.scotlandyard.model.ScotlandYardModel;
 import uk.ac.bris.cs.scotlandyard.model.ScotlandYardView;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
 import uk.ac.bris.cs.scotlandyard.model.Ticket;
 import uk.ac.bris.cs.scotlandyard.model.TicketMove;
 
@@ -363,6 +367,39 @@ public class TestGames {
 		};
 	}
 
+	/**
+	 * A player that fails the test when asked to make a move, for games driven
+	 * by {@link ScotlandYardModel#nextTurn()} and
+	 * {@link ScotlandYardModel#play(Move)}
+	 *
+	 * @return the player
+	 */
+	public static Player neverPlayer() {
+		return (view, location, moves, callback) -> {
+			throw new AssertionError("Player asked to move in a pulled game");
+		};
+	}
+
+	/**
+	 * A game on the standard map with MrX at 45, RED at 47 and BLUE at 155,
+	 * all with default tickets, to be driven by
+	 * {@link ScotlandYardModel#nextTurn()} and
+	 * {@link ScotlandYardModel#play(Move)}
+	 *
+	 * @param rounds the rounds of the game
+	 * @return the game; never null
+	 * @throws IOException if the standard map cannot be read
+	 */
+	public static ScotlandYardModel pulledGame(List<Boolean> rounds) throws IOException {
+		return new ScotlandYardModel(rounds, StandardGame.standardGraph(),
+				new PlayerConfiguration.Builder(BLACK).using(neverPlayer()).at(45)
+						.with(mrXTickets()).build(),
+				new PlayerConfiguration.Builder(RED).using(neverPlayer()).at(47)
+						.with(detectiveTickets()).build(),
+				new PlayerConfiguration.Builder(BLUE).using(neverPlayer()).at(155)
+						.with(detectiveTickets()).build());
+	}
+
 	/**
 	 * Any given valid Mr.X configuration that does nothing
 	 */
@@ -0,0 +1,220 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import org.junit.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import uk.ac.bris.cs.scotlandyard.ai.AI;
+import uk.ac.bris.cs.scotlandyard.ai.ManagedAI.VisualiserType;
+import uk.ac.bris.cs.scotlandyard.ai.PlayerFactory;
+import uk.ac.bris.cs.scotlandyard.model.Colour;
+import uk.ac.bris.cs.scotlandyard.model.Player;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+/**
+ * Plays small batches with {@link BatchRunner}
+ */
+public class BatchRunnerTest {
+
+	private static final AI RANDOM = AI.fromName("Random", VisualiserType.NONE,
+			RandomPlayerFactory.class);
+
+	/**
+	 * Calls back from a different thread than the one asking for a move
+	 */
+	public static class AsyncPlayerFactory implements PlayerFactory {
+
+		private final ExecutorService service = Executors.newSingleThreadExecutor();
+
+		@Override
+		public Player createPlayer(Colour colour) {
+			return (view, location, moves, callback) -> service.execute(
+					() -> callback.accept(moves.iterator().next()));
+		}
+
+		@Override
+		public void finish() {
+			service.shutdown();
+		}
+
+	}
+
+	/**
+	 * Fails on the first move
+	 */
+	public static class FailingPlayerFactory implements PlayerFactory {
+
+		@Override
+		public Player createPlayer(Colour colour) {
+			return (view, location, moves, callback) -> {
+				throw new IllegalStateException("Failed");
+			};
+		}
+
+	}
+
+	@Test
+	public void testBatchPlaysEveryGameInSeedOrder() throws InterruptedException {
+		List<GameResult> listened = new ArrayList<>();
+		BatchResult result = new BatchRunner.Builder(RANDOM, RANDOM)
+				.games(40)
+				.firstSeed(7)
+				.threads(4)
+				.listener(game -> {
+					synchronized (listened) {
+						listened.add(game);
+					}
+				})
+				.build().run();
+		assertThat(result.games()).hasSize(40);
+		assertThat(listened).hasSize(40);
+		for (int i = 0; i < 40; i++) {
+			GameResult game = result.games().get(i);
+			assertThat(game.seed()).isEqualTo(7 + i);
+			assertThat(game.failure()).isEmpty();
+			assertThat(game.winners()).isNotEmpty();
+			assertThat(game.mrXWon()).isNotEqualTo(game.detectivesWon());
+			assertThat(game.mrXMoves()).isPositive();
+			assertThat(game.turns()).isEqualTo(game.mrXMoves() + game.detectiveMoves());
+		}
+		assertThat(result.failures()).isEmpty();
+		assertThat(result.mrXWins() + result.detectiveWins()).isEqualTo(40);
+		assertThat(result.mrXWinRate() + result.detectiveWinRate()).isCloseTo(1.0, within(1e-9));
+	}
+
+	@Test
+	public void testSameSeedStartsSameGame() {
+		AI first = AI.fromName("First", VisualiserType.NONE, AsyncPlayerFactory.class);
+		BatchRunner runner = new BatchRunner.Builder(first, first).detectives(3).build();
+		GameResult a = runner.play(3);
+		GameResult b = runner.play(3);
+		assertThat(a.failure()).isEmpty();
+		assertThat(a.winners()).isEqualTo(b.winners());
+		assertThat(a.rounds()).isEqualTo(b.rounds());
+		assertThat(a.turns()).isEqualTo(b.turns());
+	}
+
+	@Test
+	public void testSameSeedPlaysSameRandomGame() {
+		BatchRunner runner = new BatchRunner.Builder(RANDOM, RANDOM).build();
+		for (int seed = 0; seed < 5; seed++) {
+			GameResult a = runner.play(seed);
+			GameResult b = runner.play(seed);
+			assertThat(a.failure()).isEmpty();
+			assertThat(a.winners()).isEqualTo(b.winners());
+			assertThat(a.rounds()).isEqualTo(b.rounds());
+			assertThat(a.mrXMoves()).isEqualTo(b.mrXMoves());
+			assertThat(a.detectiveMoves()).isEqualTo(b.detectiveMoves());
+		}
+	}
+
+	@Test
+	public void testFailingGameIsRecorded() throws InterruptedException {
+		AI failing = AI.fromName("Failing", VisualiserType.NONE, FailingPlayerFactory.class);
+		BatchResult result = new BatchRunner.Builder(failing, RANDOM).games(3).threads(1)
+				.build().run();
+		assertThat(result.failures()).hasSize(3);
+		assertThat(result.completed()).isZero();
+		assertThat(result.mrXWinRate()).isZero();
+		assertThat(result.games().get(0).failure().get())
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	/**
+	 * Never answers in time
+	 */
+	public static class SlowPlayerFactory implements PlayerFactory {
+
+		@Override
+		public Player createPlayer(Colour colour) {
+			return (view, location, moves, callback) -> {
+				try {
+					Thread.sleep(5000);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				callback.accept(moves.iterator().next());
+			};
+		}
+
+	}
+
+	@Test
+	public void testSlowAIIsGivenFallbackMoves() {
+		AI slow = AI.fromName("Slow", VisualiserType.NONE, SlowPlayerFactory.class);
+		GameResult result = new BatchRunner.Builder(slow, slow)
+				.rounds(Arrays.asList(false, false, false))
+				.detectives(1)
+				.budget(Duration.ofMillis(10))
+				.build().play(0);
+		assertThat(result.failure()).isEmpty();
+		assertThat(result.winners()).isNotEmpty();
+		assertThat(result.nanos()).isLessThan(Duration.ofSeconds(5).toNanos());
+	}
+
+	/**
+	 * Times out on its first move and throws once asked for the next one
+	 */
+	public static class LateFailingPlayerFactory implements PlayerFactory {
+
+		@Override
+		public Player createPlayer(Colour colour) {
+			AtomicInteger asked = new AtomicInteger();
+			CountDownLatch askedAgain = new CountDownLatch(1);
+			return (view, location, moves, callback) -> {
+				try {
+					if (asked.getAndIncrement() == 0) {
+						askedAgain.await(5, TimeUnit.SECONDS);
+						throw new IllegalStateException("Failed after the fallback move");
+					}
+					askedAgain.countDown();
+					Thread.sleep(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				callback.accept(moves.iterator().next());
+			};
+		}
+
+	}
+
+	@Test
+	public void testLateFailureDoesNotFailLaterMove() {
+		AI failing = AI.fromName("LateFailing", VisualiserType.NONE,
+				LateFailingPlayerFactory.class);
+		GameResult result = new BatchRunner.Builder(failing, failing)
+				.rounds(Arrays.asList(false, false, false))
+				.detectives(1)
+				.budget(Duration.ofMillis(10))
+				.build().play(0);
+		assertThat(result.failure()).isEmpty();
+		assertThat(result.winners()).isNotEmpty();
+	}
+
+	@Test
+	public void testInvalidArgumentsShouldThrow() {
+		BatchRunner.Builder builder = new BatchRunner.Builder(RANDOM, RANDOM);
+		assertThatThrownBy(() -> builder.detectives(0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> builder.detectives(6))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> builder.threads(0))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> builder.games(-1))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> builder.budget(Duration.ofMillis(-1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+}
@@ -0,0 +1,25 @@
+package uk.ac.bris.cs.scotlandyard.headless;
+
+import org.junit.Test;
+
+import javafx.geometry.Point2D;
+import uk.ac.bris.cs.scotlandyard.model.StandardGame;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests the resources given to AIs in headless games
+ */
+public class HeadlessResourcesTest {
+
+	@Test
+	public void testCoordinatesAreThoseOfTheStandardMap() throws Exception {
+		HeadlessResources resources = new HeadlessResources(StandardGame.standardGraph());
+		Point2D first = resources.coordinateAtNode(1);
+		assertThat(first).isNotNull();
+		assertThat(first.getX()).isEqualTo(
+				StandardGame.pngMapPositionEntries().get(1).getKey().doubleValue());
+		assertThat(resources.coordinateAtNode(0)).isNull();
+	}
+
+}
@@ -0,0 +1,265 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.doNothingPlayer;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.makeTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.DOUBLE;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests {@link GameState} against the model it was taken from
+ */
+public class GameStateTest extends ParameterisedModelTestBase {
+
+	private ScotlandYardModel createModel(List<Boolean> rounds, Player player) {
+		return (ScotlandYardModel) createGame(rounds,
+				new PlayerConfiguration.Builder(BLACK).using(player).at(45)
+						.with(doNothingPlayer(BLACK, 45).tickets).build(),
+				new PlayerConfiguration.Builder(RED).using(player).at(94)
+						.with(doNothingPlayer(RED, 94).tickets).build(),
+				new PlayerConfiguration.Builder(BLUE).using(player).at(155)
+						.with(doNothingPlayer(BLUE, 155).tickets).build());
+	}
+
+	private static Move firstOf(MoveSet moves, Class<? extends Move> type) {
+		for (Move move : moves)
+			if (type.isInstance(move)) return move;
+		throw new AssertionError("No " + type.getSimpleName() + " in " + moves);
+	}
+
+	@Test
+	public void testSnapshotMatchesGame() {
+		ScotlandYardModel game = createModel(rounds(false, false, true), (v, l, m, c) -> {});
+		GameState state = game.snapshot();
+		assertThat(state.getPlayers()).isEqualTo(game.getPlayers());
+		assertThat(state.getCurrentPlayer()).isEqualTo(BLACK);
+		assertThat(state.getCurrentRound()).isEqualTo(ScotlandYardView.NOT_STARTED);
+		assertThat(state.getRounds()).isEqualTo(game.getRounds());
+		assertThat(state.getGraph()).isEqualTo(game.getGraph());
+		assertThat(state.isGameOver()).isFalse();
+		assertThat(state.getWinningPlayers()).isEmpty();
+		// MrX is hidden through the view but not from the state itself
+		assertThat(state.getPlayerLocation(BLACK)).contains(0);
+		assertThat(state.location(BLACK)).isEqualTo(45);
+		for (Colour colour : game.getPlayers()) {
+			for (Ticket ticket : Ticket.values()) {
+				assertThat(state.getPlayerTickets(colour, ticket))
+						.isEqualTo(game.getPlayerTickets(colour, ticket));
+			}
+		}
+		assertThat(state.getPlayerLocation(Colour.GREEN)).isEmpty();
+		assertThatThrownBy(() -> state.location(Colour.GREEN))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testSnapshotTracksGame() {
+		List<GameState> predicted = new ArrayList<>();
+		List<GameState> actual = new ArrayList<>();
+		ScotlandYardModel game = createModel(rounds(false, true, false, false),
+				(view, location, moves, callback) -> {
+					GameState state = ((ScotlandYardModel) view).snapshot();
+					actual.add(state);
+					assertThat(state.validMoves()).isEqualTo(moves);
+					Move move = moves.iterator().next();
+					predicted.add(state.advance(move));
+					callback.accept(move);
+				});
+		game.startRotate();
+		game.startRotate();
+		actual.add(game.snapshot());
+		assertThat(actual.subList(1, actual.size()))
+				.isEqualTo(predicted.subList(0, actual.size() - 1));
+		for (int i = 1; i < actual.size(); i++)
+			assertThat(predicted.get(i - 1).positionHash()).isEqualTo(actual.get(i).positionHash());
+		assertThat(game.positionHash()).isEqualTo(actual.get(actual.size() - 1).positionHash());
+	}
+
+	@Test
+	public void testStateOfViewMatchesSnapshot() {
+		ScotlandYardModel game = createModel(rounds(false, true, false, false), (v, l, m, c) -> {});
+		for (int i = 0; i < 9 && !game.isGameOver(); i++) {
+			GameState snapshot = game.snapshot();
+			GameState state = GameState.of(game, snapshot.location(BLACK));
+			assertThat(state.positionHash()).isEqualTo(snapshot.positionHash());
+			assertThat(state.validMoves()).isEqualTo(snapshot.validMoves());
+			assertThat(state.getPlayerLocation(BLACK)).isEqualTo(game.getPlayerLocation(BLACK));
+			game.play(game.nextTurn().get().moves().iterator().next());
+		}
+	}
+
+	@Test
+	public void testWithMrXAtMovesOnlyMrX() {
+		GameState state = createModel(rounds(false, false), (v, l, m, c) -> {}).snapshot();
+		GameState guessed = state.withMrXAt(46);
+		assertThat(guessed.location(BLACK)).isEqualTo(46);
+		assertThat(guessed.location(RED)).isEqualTo(94);
+		assertThat(guessed.getPlayerLocation(BLACK)).isEqualTo(state.getPlayerLocation(BLACK));
+		assertThat(guessed.positionHash()).isNotEqualTo(state.positionHash());
+		assertThat(guessed.withMrXAt(45).positionHash()).isEqualTo(state.positionHash());
+		assertThat(state.location(BLACK)).isEqualTo(45);
+		assertThatThrownBy(() -> state.withMrXAt(1000))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> GameState.of(state, 1000))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testWithViewReusesRulesOfSameGame() {
+		ScotlandYardModel game = createModel(rounds(false, false, false), (v, l, m, c) -> {});
+		// a state is a view but not a model, so its rules are built anew
+		GameState first = GameState.of(game.snapshot(), 45);
+		assertThat(first.withView(game.snapshot(), 46)).isEqualTo(first.withMrXAt(46));
+		GameState other = createModel(rounds(false, false), (v, l, m, c) -> {}).snapshot();
+		GameState viewed = other.withView(game.snapshot(), 46);
+		assertThat(viewed.getRounds()).isEqualTo(game.getRounds());
+		assertThat(viewed.location(BLACK)).isEqualTo(46);
+		assertThatThrownBy(() -> first.withView(game, 1000))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testAdvanceLeavesStateUnchanged() {
+		ScotlandYardModel game = createModel(rounds(false, false), (v, l, m, c) -> {});
+		GameState before = game.snapshot();
+		GameState after = before.advance(firstOf(before.validMoves(), TicketMove.class));
+		assertThat(before).isEqualTo(game.snapshot());
+		assertThat(after).isNotEqualTo(before);
+		assertThat(after.positionHash()).isNotEqualTo(before.positionHash());
+		assertThat(after.getCurrentPlayer()).isEqualTo(RED);
+		assertThat(after.getCurrentRound()).isEqualTo(1);
+	}
+
+	@Test
+	public void testDetectiveTicketIsGivenToMrX() {
+		GameState state = createModel(rounds(false, false), (v, l, m, c) -> {}).snapshot();
+		state = state.advance(firstOf(state.validMoves(), TicketMove.class));
+		TicketMove move = (TicketMove) firstOf(state.validMoves(), TicketMove.class);
+		GameState after = state.advance(move);
+		assertThat(after.location(RED)).isEqualTo(move.destination());
+		assertThat(after.tickets(RED, move.ticket()))
+				.isEqualTo(state.tickets(RED, move.ticket()) - 1);
+		assertThat(after.tickets(BLACK, move.ticket()))
+				.isEqualTo(state.tickets(BLACK, move.ticket()) + 1);
+		assertThat(after.tickets(BLUE, TAXI)).isEqualTo(state.tickets(BLUE, TAXI));
+	}
+
+	@Test
+	public void testDoubleMoveRevealsOnlyInRevealRound() {
+		GameState state = createModel(rounds(true, false, false), (v, l, m, c) -> {}).snapshot();
+		DoubleMove move = (DoubleMove) firstOf(state.validMoves(), DoubleMove.class);
+		GameState after = state.advance(move);
+		assertThat(after.getCurrentRound()).isEqualTo(2);
+		assertThat(after.getPlayerLocation(BLACK)).contains(move.firstMove().destination());
+		assertThat(after.location(BLACK)).isEqualTo(move.finalDestination());
+		assertThat(after.tickets(BLACK, DOUBLE)).isEqualTo(state.tickets(BLACK, DOUBLE) - 1);
+	}
+
+	@Test
+	public void testInvalidMoveShouldThrow() {
+		GameState state = createModel(rounds(false, false), (v, l, m, c) -> {}).snapshot();
+		assertThatThrownBy(() -> state.advance(new PassMove(BLACK)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> state.advance(new TicketMove(RED, TAXI, 93)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> state.advance(null))
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	public void testHasAnyValidMoveMatchesValidMoves() {
+		ScotlandYardModel game = createModel(rounds(false, true, false, false, false, false,
+				false, false), (v, l, m, c) -> {});
+		Random random = new Random(42);
+		while (!game.isGameOver()) {
+			GameState state = game.snapshot();
+			for (int player = 0; player < state.locations.length; player++) {
+				boolean ticketMove = false;
+				for (Move move : state.rules.validMoves(player, state.locations,
+						state.tickets[player], state.round))
+					ticketMove |= !(move instanceof PassMove);
+				assertThat(state.rules.hasAnyValidMove(player, state.locations,
+						state.tickets[player])).isEqualTo(ticketMove);
+			}
+			List<Move> moves = new ArrayList<>(game.nextTurn().get().moves());
+			game.play(moves.get(random.nextInt(moves.size())));
+		}
+	}
+
+	@Test
+	public void testValidMoveCountMatchesValidMoves() {
+		ScotlandYardModel game = createModel(rounds(false, true, false, false, false, false,
+				false, false), (v, l, m, c) -> {});
+		Random random = new Random(42);
+		while (!game.isGameOver()) {
+			GameState state = game.snapshot();
+			SearchBoard board = new SearchBoard(state);
+			for (int player = 0; player < state.locations.length; player++) {
+				Colour colour = state.rules.colours.get(player);
+				int size = state.rules.validMoves(player, state.locations,
+						state.tickets[player], state.round).size();
+				assertThat(state.validMoveCount(colour)).isEqualTo(size);
+				assertThat(board.validMoveCount(colour)).isEqualTo(size);
+			}
+			List<Move> moves = new ArrayList<>(game.nextTurn().get().moves());
+			game.play(moves.get(random.nextInt(moves.size())));
+		}
+		assertThatThrownBy(() -> game.snapshot().validMoveCount(Colour.GREEN))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testValidMoveCountCountsSecretMovesOnce() {
+		// bus and underground both lead from 1 to 46, RED can move nowhere
+		GameState state = ((ScotlandYardModel) createGame(rounds(false, false),
+				new PlayerConfiguration.Builder(BLACK).using((v, l, m, c) -> {}).at(1)
+						.with(makeTickets(0, 1, 1, 0, 1)).build(),
+				new PlayerConfiguration.Builder(RED).using((v, l, m, c) -> {}).at(8)
+						.with(makeTickets(0, 0, 0, 0, 0)).build(),
+				new PlayerConfiguration.Builder(BLUE).using((v, l, m, c) -> {}).at(9)
+						.with(makeTickets(1, 0, 0, 0, 0)).build())).snapshot();
+		// BUS to 46 and 58, UNDERGROUND to 46, SECRET to 46 and 58
+		assertThat(state.validMoveCount(BLACK)).isEqualTo(5);
+		assertThat(state.validMoves()).hasSize(5);
+		assertThat(state.validMoveCount(RED)).isEqualTo(1);
+	}
+
+	@Test
+	public void testCorneredMrXEndsGame() {
+		// MrX can only take the tube from 1 to 46, where BLUE is
+		GameState state = ((ScotlandYardModel) createGame(rounds(false, false),
+				new PlayerConfiguration.Builder(BLACK).using((v, l, m, c) -> {}).at(1)
+						.with(makeTickets(0, 0, 1, 0, 0)).build(),
+				new PlayerConfiguration.Builder(RED).using((v, l, m, c) -> {}).at(8)
+						.with(makeTickets(0, 0, 0, 0, 0)).build(),
+				new PlayerConfiguration.Builder(BLUE).using((v, l, m, c) -> {}).at(46)
+						.with(makeTickets(1, 0, 0, 0, 0)).build())).snapshot();
+		assertThat(state.isGameOver()).isTrue();
+		assertThat(state.validMoves()).isEmpty();
+		assertThat(state.getWinningPlayers()).containsOnly(RED, BLUE);
+	}
+
+	@Test
+	public void testAdvanceAfterGameOverShouldThrow() {
+		GameState state = createModel(rounds(false), (v, l, m, c) -> {}).snapshot();
+		for (int i = 0; i < 3; i++)
+			state = state.advance(firstOf(state.validMoves(), TicketMove.class));
+		GameState over = state;
+		assertThat(over.isGameOver()).isTrue();
+		assertThat(over.getWinningPlayers()).containsOnly(BLACK);
+		assertThatThrownBy(() -> over.advance(over.validMoves().iterator().next()))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+}
@@ -4,11 +4,16 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import uk.ac.bris.cs.scotlandyard.harness.TestHarness;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.bus;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
 import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.pass;
 import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
 import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.taxi;
@@ -245,4 +250,33 @@ public class ModelGameOverTest extends ParameterisedModelTestBase {
 						assertThat(g.getWinningPlayers()).containsExactlyInAnyOrder(BLUE, RED))
 				.thenIgnoreAnyFurtherInteractions();
 	}
+
+	@Test
+	public void testGameOverSeenBySpectatorsDuringMove() {
+		// MrX takes a taxi to 46 and RED follows him there
+		Player player = (view, location, moves, callback) -> callback.accept(
+				new TicketMove(view.getCurrentPlayer(), Ticket.TAXI, 46));
+		ScotlandYardGame game = createGame(
+				new PlayerConfiguration.Builder(BLACK).using(player).at(45)
+						.with(mrXTickets()).build(),
+				new PlayerConfiguration.Builder(RED).using(player).at(47)
+						.with(detectiveTickets()).build(),
+				new PlayerConfiguration.Builder(BLUE).using(player).at(155)
+						.with(detectiveTickets()).build());
+		List<Boolean> over = new ArrayList<>();
+		game.registerSpectator(new Spectator() {
+			@Override
+			public void onMoveMade(ScotlandYardView view, Move move) {
+				over.add(view.isGameOver());
+				over.add(view.isGameOver());
+			}
+		});
+		assertThat(game.isGameOver()).isFalse();
+		game.startRotate();
+		assertThat(over).containsExactly(false, false, true, true);
+		assertThat(game.isGameOver()).isTrue();
+		assertThat(game.getWinningPlayers()).containsExactlyInAnyOrder(RED, BLUE);
+		assertThat(game.getWinningPlayers()).containsExactlyInAnyOrder(RED, BLUE);
+	}
+
 }
@@ -16,5 +16,9 @@ import org.junit.runners.Suite;
 		ModelRoundTest.class,
 		ModelPlayerTest.class,
 		ModelValidMoveTest.class,
-		ModelSpectatorTest.class})
+		ModelSpectatorTest.class,
+		MoveSetTest.class,
+		GameStateTest.class,
+		SearchBoardTest.class,
+		ModelTurnLoopTest.class})
 public class ModelTest {}
@@ -0,0 +1,136 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.neverPlayer;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+
+/**
+ * Tests driving the model with {@link ScotlandYardModel#nextTurn()} and
+ * {@link ScotlandYardModel#play(Move)}
+ */
+public class ModelTurnLoopTest extends ParameterisedModelTestBase {
+
+	private ScotlandYardModel createModel(List<Boolean> rounds, Player player) {
+		return (ScotlandYardModel) createGame(rounds,
+				new PlayerConfiguration.Builder(BLACK).using(player).at(45)
+						.with(mrXTickets()).build(),
+				new PlayerConfiguration.Builder(RED).using(player).at(94)
+						.with(detectiveTickets()).build(),
+				new PlayerConfiguration.Builder(BLUE).using(player).at(155)
+						.with(detectiveTickets()).build());
+	}
+
+	// records every spectator notification as text
+	private static Spectator recorder(List<String> events) {
+		return new Spectator() {
+			@Override
+			public void onMoveMade(ScotlandYardView view, Move move) {
+				events.add("move " + move);
+			}
+
+			@Override
+			public void onRoundStarted(ScotlandYardView view, int round) {
+				events.add("round " + round);
+			}
+
+			@Override
+			public void onRotationComplete(ScotlandYardView view) {
+				events.add("rotation");
+			}
+
+			@Override
+			public void onGameOver(ScotlandYardView view, Set<Colour> winningPlayers) {
+				events.add("over " + winningPlayers);
+			}
+		};
+	}
+
+	@Test
+	public void testTurnLoopMatchesRotations() {
+		List<Boolean> rounds = new ArrayList<>(Collections.nCopies(24, false));
+		rounds.set(2, true);
+		rounds.set(7, true);
+
+		List<String> rotated = new ArrayList<>();
+		Random first = new Random(7);
+		ScotlandYardModel expected = createModel(rounds, (view, location, moves, callback) ->
+				callback.accept(new ArrayList<>(moves).get(first.nextInt(moves.size()))));
+		expected.registerSpectator(recorder(rotated));
+		while (!expected.isGameOver()) expected.startRotate();
+
+		List<String> pulled = new ArrayList<>();
+		Random second = new Random(7);
+		Player never = neverPlayer();
+		ScotlandYardModel game = createModel(rounds, never);
+		game.registerSpectator(recorder(pulled));
+		for (Optional<Turn> turn = game.nextTurn(); turn.isPresent(); turn = game.nextTurn()) {
+			assertThat(turn.get().colour()).isEqualTo(game.getCurrentPlayer());
+			assertThat(turn.get().player()).isSameAs(never);
+			game.play(new ArrayList<>(turn.get().moves())
+					.get(second.nextInt(turn.get().moves().size())));
+		}
+
+		assertThat(pulled).isEqualTo(rotated);
+		assertThat(game.getWinningPlayers()).isEqualTo(expected.getWinningPlayers());
+		assertThat(game.positionHash()).isEqualTo(expected.positionHash());
+	}
+
+	@Test
+	public void testNextTurnIsPendingMove() {
+		ScotlandYardModel game = createModel(rounds(false, false), neverPlayer());
+		Turn turn = game.nextTurn().orElseThrow(AssertionError::new);
+		assertThat(turn.colour()).isEqualTo(BLACK);
+		assertThat(turn.location()).isEqualTo(45);
+		assertThat(turn.moves()).isEqualTo(game.snapshot().validMoves());
+		assertThat(game.nextTurn().get().moves()).isEqualTo(turn.moves());
+
+		game.play(turn.moves().iterator().next());
+		Turn next = game.nextTurn().orElseThrow(AssertionError::new);
+		assertThat(next.colour()).isEqualTo(RED);
+		assertThat(next.location()).isEqualTo(94);
+	}
+
+	@Test
+	public void testNextTurnIsEmptyWhenGameOver() {
+		ScotlandYardModel game = createModel(rounds(false), neverPlayer());
+		for (int i = 0; i < 3; i++)
+			game.play(game.nextTurn().get().moves().iterator().next());
+		assertThat(game.isGameOver()).isTrue();
+		assertThat(game.nextTurn()).isEmpty();
+		assertThatThrownBy(() -> game.play(new PassMove(BLACK)))
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+	@Test
+	public void testInvalidMoveShouldThrow() {
+		ScotlandYardModel game = createModel(rounds(false, false), neverPlayer());
+		assertThatThrownBy(() -> game.play(new PassMove(BLACK)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> game.play(null))
+				.isInstanceOf(NullPointerException.class);
+	}
+
+	@Test
+	public void testStartRotateAfterNextTurnShouldThrow() {
+		ScotlandYardModel game = createModel(rounds(false, false), neverPlayer());
+		game.nextTurn();
+		assertThatThrownBy(game::startRotate)
+				.isInstanceOf(IllegalStateException.class);
+	}
+
+}
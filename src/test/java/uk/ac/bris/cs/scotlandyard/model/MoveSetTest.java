@@ -0,0 +1,82 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.RED;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.BUS;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.SECRET;
+import static uk.ac.bris.cs.scotlandyard.model.Ticket.TAXI;
+
+/**
+ * Tests for {@link PackedMove} and {@link MoveSet}
+ */
+public class MoveSetTest {
+
+	private final TicketMove ticket = new TicketMove(RED, BUS, 77);
+	private final DoubleMove x2 = new DoubleMove(BLACK, SECRET, 5, TAXI, 199);
+	private final PassMove pass = new PassMove(BLUE);
+
+	@Test
+	public void testPackedMovesRoundTrip() {
+		for (Move move : Arrays.asList(ticket, x2, pass))
+			assertThat(PackedMove.decode(PackedMove.encode(move))).isEqualTo(move);
+		long packed = PackedMove.encode(x2);
+		assertThat(PackedMove.kind(packed)).isEqualTo(PackedMove.DOUBLE);
+		assertThat(PackedMove.colour(packed)).isEqualTo(BLACK);
+		assertThat(PackedMove.ticket(packed)).isEqualTo(SECRET);
+		assertThat(PackedMove.destination(packed)).isEqualTo(5);
+		assertThat(PackedMove.secondTicket(packed)).isEqualTo(TAXI);
+		assertThat(PackedMove.finalDestination(packed)).isEqualTo(199);
+		assertThat(PackedMove.then(PackedMove.ticket(BLACK, SECRET, 5), TAXI, 199))
+				.isEqualTo(packed);
+	}
+
+	@Test
+	public void testUnpackableMoveShouldThrow() {
+		assertThatThrownBy(() -> PackedMove.encode(new TicketMove(RED, BUS, -1)))
+				.isInstanceOf(IllegalArgumentException.class);
+	}
+
+	@Test
+	public void testMoveSetBehavesLikeHashSet() {
+		Set<Move> expected = new HashSet<>(Arrays.asList(ticket, x2, pass));
+		MoveSet moves = MoveSet.copyOf(Arrays.asList(ticket, x2, pass, ticket));
+		assertThat(moves).hasSize(3).containsExactlyInAnyOrderElementsOf(expected);
+		assertThat(moves).isEqualTo(expected);
+		assertThat(expected).isEqualTo(moves);
+		assertThat(moves.hashCode()).isEqualTo(expected.hashCode());
+		assertThat(moves.contains(new TicketMove(RED, BUS, 78))).isFalse();
+		assertThat(moves.contains(new TicketMove(BLUE, BUS, 77))).isFalse();
+		assertThat(moves.contains(null)).isFalse();
+		assertThat(moves.containsPacked(PackedMove.encode(x2))).isTrue();
+	}
+
+	@Test
+	public void testMoveSetIsImmutable() {
+		MoveSet moves = MoveSet.copyOf(Arrays.asList(ticket, x2));
+		assertThatThrownBy(() -> moves.add(pass))
+				.isInstanceOf(UnsupportedOperationException.class);
+		assertThatThrownBy(() -> moves.remove(ticket))
+				.isInstanceOf(UnsupportedOperationException.class);
+	}
+
+	@Test
+	public void testBuilderIsReusable() {
+		MoveSet.Builder builder = new MoveSet.Builder();
+		MoveSet first = builder.add(PackedMove.encode(ticket))
+				.add(PackedMove.encode(ticket)).build();
+		MoveSet second = builder.clear().add(PackedMove.encode(pass)).build();
+		assertThat(first).containsExactly(ticket);
+		assertThat(second).containsExactly(pass);
+		assertThat(builder.clear().build()).isSameAs(MoveSet.empty());
+	}
+
+}
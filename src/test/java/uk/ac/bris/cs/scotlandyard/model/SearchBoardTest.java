@@ -0,0 +1,98 @@
+package uk.ac.bris.cs.scotlandyard.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.detectiveTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.doNothingPlayer;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.mrXTickets;
+import static uk.ac.bris.cs.scotlandyard.auxiliary.TestGames.rounds;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLACK;
+import static uk.ac.bris.cs.scotlandyard.model.Colour.BLUE;
+
+/**
+ * Plays random games on the model and a {@link SearchBoard} side by side
+ */
+public class SearchBoardTest extends ParameterisedModelTestBase {
+
+	private static final int GAMES = 40;
+
+	@Test
+	public void testRandomPlayOutsMatchModel() {
+		Random random = new Random(42);
+		for (int i = 0; i < GAMES; i++)
+			playOut(random);
+	}
+
+	private void playOut(Random random) {
+		List<Integer> nodes = new ArrayList<>();
+		for (int node = 1; node <= 199; node++) nodes.add(node);
+		Collections.shuffle(nodes, random);
+		List<Boolean> rounds = new ArrayList<>();
+		for (int i = 0; i < 2 + random.nextInt(22); i++) rounds.add(random.nextInt(4) == 0);
+
+		List<GameState> states = new ArrayList<>();
+		SearchBoard[] board = {null};
+		Player player = (view, location, moves, callback) -> {
+			GameState state = ((ScotlandYardModel) view).snapshot();
+			if (board[0] == null) board[0] = new SearchBoard(state);
+			assertThat(board[0].toState()).isEqualTo(state);
+			assertThat(board[0].validMoves()).isEqualTo(moves);
+			assertThat(board[0].isGameOver()).isFalse();
+			long hash = PositionHash.of(view) ^ PositionHash.mrX(state.location(BLACK));
+			assertThat(((ScotlandYardModel) view).positionHash()).isEqualTo(hash);
+			assertThat(state.positionHash()).isEqualTo(hash);
+			assertThat(board[0].positionHash()).isEqualTo(hash);
+			states.add(state);
+			Move move = new ArrayList<>(moves).get(random.nextInt(moves.size()));
+			board[0].make(move);
+			callback.accept(move);
+		};
+
+		List<PlayerConfiguration> detectives = new ArrayList<>();
+		for (int i = 0; i < 1 + random.nextInt(5); i++)
+			detectives.add(new PlayerConfiguration.Builder(Colour.values()[i + 1])
+					.using(player).with(detectiveTickets()).at(nodes.get(i + 1)).build());
+		ScotlandYardModel game = (ScotlandYardModel) createGame(rounds,
+				new PlayerConfiguration.Builder(BLACK).using(player).with(mrXTickets())
+						.at(nodes.get(0)).build(),
+				detectives.get(0),
+				detectives.subList(1, detectives.size()).toArray(new PlayerConfiguration[0]));
+		while (!game.isGameOver()) game.startRotate();
+
+		GameState end = game.snapshot();
+		assertThat(board[0].toState()).isEqualTo(end);
+		assertThat(board[0].positionHash()).isEqualTo(game.positionHash());
+		assertThat(board[0].isGameOver()).isTrue();
+		assertThat(board[0].getWinningPlayers()).isEqualTo(game.getWinningPlayers());
+		assertThat(board[0].ply()).isEqualTo(states.size());
+
+		// taking every move back must revisit every position in reverse
+		for (int i = states.size() - 1; i >= 0; i--) {
+			board[0].unmake();
+			assertThat(board[0].toState()).isEqualTo(states.get(i));
+			assertThat(board[0].positionHash()).isEqualTo(states.get(i).positionHash());
+		}
+		assertThat(board[0].ply()).isZero();
+	}
+
+	@Test
+	public void testInvalidMoveShouldThrow() {
+		SearchBoard board = new SearchBoard(((ScotlandYardModel) createGame(rounds(false, false),
+				doNothingPlayer(BLACK, 45), doNothingPlayer(BLUE, 94))).snapshot());
+		assertThatThrownBy(() -> board.make(new PassMove(BLACK)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(() -> board.make(new TicketMove(BLUE, Ticket.TAXI, 93)))
+				.isInstanceOf(IllegalArgumentException.class);
+		assertThatThrownBy(board::unmake)
+				.isInstanceOf(IllegalStateException.class);
+		assertThat(board.ply()).isZero();
+	}
+
+}